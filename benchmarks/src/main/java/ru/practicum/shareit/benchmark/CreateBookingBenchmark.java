@@ -0,0 +1,130 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * POST /bookings через HTTP к серверу на H2 в памяти при двух конфигурациях логирования:
+ * dev - настройки application.properties (SQL в DEBUG, параметры в TRACE, show-sql, синхронный вывод),
+ * prod - профиль prod (асинхронный JSON-лог, выборочный лог SQL).
+ * Консольный вывод сервера пишется в target/create-booking-{logging}.log, чтобы оба варианта
+ * платили за настоящую запись, а не за вывод в консоль JMH.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CreateBookingBenchmark {
+
+    private static final long OWNER_ID = 1;
+    private static final long BOOKER_ID = 2;
+    private static final int ITEMS = 20;
+
+    @Param({"dev", "prod"})
+    private String logging;
+
+    private final AtomicLong slots = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private PrintStream stdout;
+    private HttpClient httpClient;
+    private String bookingsUrl;
+    private LocalDateTime firstSlot;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        stdout = System.out;
+        System.setOut(logFile());
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ShareItServer.class);
+        builder.profiles("prod".equals(logging) ? new String[]{"test", "prod"} : new String[]{"test"});
+        context = builder.run("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:create-booking",
+                "--shareit.booking-summary.sweep-enabled=false");
+        seed(context.getBean(JdbcTemplate.class));
+
+        httpClient = HttpClient.newHttpClient();
+        bookingsUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                + "/bookings";
+        firstSlot = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        context.close();
+        httpClient.close();
+        System.out.close();
+        System.setOut(stdout);
+    }
+
+    // Каждое бронирование - свой непересекающийся часовой интервал одной из вещей
+    @Benchmark
+    public int createBooking() throws IOException, InterruptedException {
+        long slot = slots.getAndIncrement();
+        LocalDateTime start = firstSlot.plusHours(slot / ITEMS * 2);
+        String json = "{\"itemId\":" + (slot % ITEMS + 1) + ",\"start\":\"" + start
+                + "\",\"end\":\"" + start.plusHours(1) + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(bookingsUrl))
+                .header("Content-Type", "application/json")
+                .header("X-Sharer-User-Id", String.valueOf(BOOKER_ID))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST /bookings returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private PrintStream logFile() throws IOException {
+        Path file = Path.of("target", "create-booking-" + logging + ".log");
+        Files.createDirectories(file.getParent());
+        return new PrintStream(new FileOutputStream(file.toFile()), true);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> items = new ArrayList<>();
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            items.add(new Object[]{itemId, "Item " + itemId, "Description", true, OWNER_ID});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", List.of(
+                new Object[]{OWNER_ID, "Owner", "owner@example.com"},
+                new Object[]{BOOKER_ID, "Booker", "booker@example.com"}));
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id) " +
+                "values (?, ?, ?, ?, ?)", items);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.exception.ErrorCode;
+import ru.practicum.shareit.exception.ErrorResponse;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ShareItException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ошибка 404 от броска до тела ответа: прежнее исключение со стеком и сообщением,
+ * собранным при броске, против исключения без стека с кодом ошибки.
+ * Исключение бросается на глубине depth кадров - примерно столько добавляют Tomcat,
+ * фильтры, Spring MVC и прокси сервисов между контроллером и местом броска.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+
+    @Param({"20", "150"})
+    private int depth;
+
+    private long userId = 42;
+
+    // Исключение в прежнем виде: стек заполняется при создании
+    private static class StackTraceNotFoundException extends RuntimeException {
+
+        StackTraceNotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    @Benchmark
+    public ErrorResponse userNotFoundWithStackTrace() {
+        try {
+            throwAt(depth, () -> {
+                throw new StackTraceNotFoundException("User with id=" + userId + " not found");
+            });
+            return null;
+        } catch (StackTraceNotFoundException e) {
+            return new ErrorResponse("Not found", e.getMessage());
+        }
+    }
+
+    @Benchmark
+    public ErrorResponse userNotFoundStackless() {
+        try {
+            throwAt(depth, () -> {
+                throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
+            });
+            return null;
+        } catch (ShareItException e) {
+            return e.toErrorResponse();
+        }
+    }
+
+    @Benchmark
+    public ErrorResponse ownItemBookingWithStackTrace() {
+        try {
+            throwAt(depth, () -> {
+                throw new StackTraceNotFoundException("Owner cannot book his own item");
+            });
+            return null;
+        } catch (StackTraceNotFoundException e) {
+            return new ErrorResponse("Not found", e.getMessage());
+        }
+    }
+
+    // Код без параметров: ответ берётся готовым из ErrorCode
+    @Benchmark
+    public ErrorResponse ownItemBookingStackless() {
+        try {
+            throwAt(depth, () -> {
+                throw new NotFoundException(ErrorCode.OWN_ITEM_BOOKING);
+            });
+            return null;
+        } catch (ShareItException e) {
+            return e.toErrorResponse();
+        }
+    }
+
+    private static void throwAt(int depth, Runnable thrower) {
+        if (depth == 0) {
+            thrower.run();
+        } else {
+            throwAt(depth - 1, thrower);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Объекты предметной области с заполненными связями - входные данные для мапперов.
+ */
+final class Fixtures {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        return new User(id, "User " + id, "user" + id + "@example.com");
+    }
+
+    static Item item(long id, User owner) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Дрель " + id);
+        item.setDescription("Аккумуляторная дрель с набором свёрл");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        return item;
+    }
+
+    static Booking booking(long id, Item item, User booker, LocalDateTime start) {
+        return new Booking(id, start, start.plusDays(1), item, booker, Status.APPROVED, null);
+    }
+
+    static List<Comment> comments(Item item, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Comment((long) i, "Отличная вещь, всё работает", item, user(100 + i),
+                        NOW.minusDays(i)))
+                .toList();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.summary.BookingSnapshot;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Сериализация списка вещей владельца (GET /items) в JSON.
+ * ObjectMapper настроен так же, как в Spring MVC (Jackson2ObjectMapperBuilder).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private List<ItemWithBookingsDto> ownerItems;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        User owner = Fixtures.user(1);
+        User booker = Fixtures.user(2);
+        ownerItems = LongStream.rangeClosed(1, items)
+                .mapToObj(id -> {
+                    Item item = Fixtures.item(id, owner);
+                    return ItemMapper.toItemWithBookingsDto(item,
+                            BookingSnapshot.of(Fixtures.booking(id * 2, item, booker, Fixtures.NOW.minusDays(3))),
+                            BookingSnapshot.of(Fixtures.booking(id * 2 + 1, item, booker, Fixtures.NOW.plusDays(3))),
+                            Fixtures.comments(item, 3));
+                })
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ownerItems);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.summary.BookingSnapshot;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Мапперы сущностей и проекций в DTO ответа - на каждую строку каждого списка.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private Item item;
+    private BookingSnapshot lastBooking;
+    private BookingSnapshot nextBooking;
+    private List<Comment> comments;
+    private Booking booking;
+    private BookingView bookingView;
+    private ItemRequest request;
+    private List<ItemShortDto> requestItems;
+
+    @Setup
+    public void setUp() {
+        User owner = Fixtures.user(1);
+        User booker = Fixtures.user(2);
+        item = Fixtures.item(1, owner);
+        booking = Fixtures.booking(1, item, booker, Fixtures.NOW.minusDays(3));
+        lastBooking = BookingSnapshot.of(booking);
+        nextBooking = BookingSnapshot.of(Fixtures.booking(2, item, booker, Fixtures.NOW.plusDays(3)));
+        comments = Fixtures.comments(item, 5);
+        bookingView = new BookingView(1L, Fixtures.NOW, Fixtures.NOW.plusDays(1), Status.WAITING,
+                item.getId(), item.getName(), booker.getId(), booker.getName());
+        request = new ItemRequest(1L, "Нужна дрель на выходные", booker, Fixtures.NOW, null);
+        requestItems = LongStream.rangeClosed(1, 10)
+                .mapToObj(id -> new ItemShortDto(id, "Дрель " + id, owner.getId(), request.getId()))
+                .toList();
+    }
+
+    @Benchmark
+    public ItemWithBookingsDto itemWithBookings() {
+        return ItemMapper.toItemWithBookingsDto(item, lastBooking, nextBooking, comments);
+    }
+
+    @Benchmark
+    public BookingDto bookingFromEntity() {
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Benchmark
+    public BookingDto bookingFromView() {
+        return BookingMapper.toBookingDto(bookingView);
+    }
+
+    @Benchmark
+    public ItemRequestDto itemRequest() {
+        return ItemRequestMapper.toItemRequestDto(request, requestItems);
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Страница бронирований владельца (BookingServiceImpl.getOwnerBookings) целиком - запрос,
+ * проекция и маппинг - на H2 в памяти. Владелец с ITEMS вещами, у каждой BOOKINGS_PER_ITEM
+ * бронирований разных арендаторов: половина в прошлом, половина в будущем.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OwnerBookingsBenchmark {
+
+    private static final long OWNER_ID = 1;
+    private static final int BOOKERS = 100;
+    private static final int ITEMS = 200;
+    private static final int BOOKINGS_PER_ITEM = 50;
+    private static final int PAGE_SIZE = 20;
+    private static final String[] STATUSES = {"APPROVED", "APPROVED", "WAITING", "REJECTED"};
+
+    @Param({"ALL", "PAST", "FUTURE", "WAITING"})
+    private BookingState state;
+
+    // Смещение страницы: 0 - первая страница, больше - листание вглубь без курсора
+    @Param({"0", "2000"})
+    private int from;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+
+    @Setup(Level.Trial)
+    public void startServer() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "--shareit.booking-summary.sweep-enabled=false",
+                        // Отладочный лог каждого запроса исказил бы замер
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.springframework.orm.jpa=WARN",
+                        "--logging.level.org.springframework.transaction=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerBookingsPage() {
+        return bookingService.getOwnerBookings(OWNER_ID, state, from, PAGE_SIZE, null);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> bookings = new ArrayList<>();
+
+        users.add(new Object[]{OWNER_ID, "Owner", "owner@example.com"});
+        for (long bookerId = OWNER_ID + 1; bookerId <= OWNER_ID + BOOKERS; bookerId++) {
+            users.add(new Object[]{bookerId, "Booker " + bookerId, "booker" + bookerId + "@example.com"});
+        }
+        long bookingId = 0;
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            items.add(new Object[]{itemId, "Item " + itemId, "Description", true, OWNER_ID});
+            for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                bookingId++;
+                LocalDateTime start = now.plusDays(b - BOOKINGS_PER_ITEM / 2).plusMinutes(itemId);
+                bookings.add(new Object[]{bookingId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(12)),
+                        itemId, OWNER_ID + 1 + bookingId % BOOKERS, STATUSES[(int) (bookingId % STATUSES.length)]});
+            }
+        }
+
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id) " +
+                "values (?, ?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.execute("analyze");
+    }
+}
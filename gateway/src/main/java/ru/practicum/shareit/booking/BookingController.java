@@ -1,16 +1,21 @@
 package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
@@ -37,20 +42,23 @@ public class BookingController {
 
 	@GetMapping("/{bookingId}")
 	public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-											 @PathVariable Long bookingId) {
+											 @PathVariable Long bookingId,
+											 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+											 String ifNoneMatch) {
 		log.info("Get booking {}, userId={}", bookingId, userId);
-		return bookingClient.getBooking(userId, bookingId);
+		return bookingClient.getBooking(userId, bookingId, ifNoneMatch);
 	}
 
 	@GetMapping
 	public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
 											  @RequestParam(name = "state", defaultValue = "all") String stateParam,
 											  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-											  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+											  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+											  @Positive @RequestParam(name = "after", required = false) Long after) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getBookings(userId, state, from, size);
+		log.info("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+		return bookingClient.getBookings(userId, state, from, size, after);
 	}
 
 	// ДОБАВЛЕНО: метод для owner bookings
@@ -58,10 +66,35 @@ public class BookingController {
 	public ResponseEntity<Object> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") long userId,
 												   @RequestParam(name = "state", defaultValue = "all") String stateParam,
 												   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-												   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+												   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+												   @Positive @RequestParam(name = "after", required = false) Long after) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get owner bookings with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getOwnerBookings(userId, state, from, size);
+		log.info("Get owner bookings with state {}, userId={}, from={}, size={}, after={}",
+				stateParam, userId, from, size, after);
+		return bookingClient.getOwnerBookings(userId, state, from, size, after);
+	}
+
+	// Счётчики бронирований по состояниям: один запрос вместо списка на каждое состояние
+	@GetMapping("/summary")
+	public ResponseEntity<Object> getBookingCounts(@RequestHeader("X-Sharer-User-Id") long userId) {
+		log.info("Get booking counts, userId={}", userId);
+		return bookingClient.getBookingCounts(userId);
+	}
+
+	@GetMapping("/owner/summary")
+	public ResponseEntity<Object> getOwnerBookingCounts(@RequestHeader("X-Sharer-User-Id") long userId) {
+		log.info("Get owner booking counts, userId={}", userId);
+		return bookingClient.getOwnerBookingCounts(userId);
+	}
+
+	// Выгрузка истории бронирований владельца: ответ сервера передаётся потоком, без буферизации
+	@GetMapping("/owner/export")
+	public ResponseEntity<StreamingResponseBody> exportOwnerBookings(
+			@RequestHeader("X-Sharer-User-Id") long userId,
+			@Pattern(regexp = "(?i)ndjson|csv", message = "Unknown format")
+			@RequestParam(name = "format", defaultValue = "ndjson") String format) throws IOException {
+		log.info("Export owner bookings as {}, userId={}", format, userId);
+		return bookingClient.exportOwnerBookings(userId, format);
 	}
-}
\ No newline at end of file
+}
@@ -1,22 +1,34 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    // Заголовки соединения gateway-сервер, которые не относятся к ответу клиенту;
+    // длину тела gateway выставит сам
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization", "content-length");
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    protected final ServerTransport transport;
+
+    public BaseClient(ServerTransport transport) {
+        this.transport = transport;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -28,7 +40,38 @@ public class BaseClient {
     }
 
     protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+        return get(path, userId, parameters, null);
+    }
+
+    // If-None-Match клиента передаётся серверу как есть, 304 и ETag ответа - обратно клиенту
+    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                         @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return makeAndSendRequest(HttpMethod.GET, path, headers, parameters, null);
+    }
+
+    // GET через кэш ответов: свежая запись отдаётся без обращения к серверу, устаревшая с ETag
+    // перепроверяется условным запросом (304 - запись снова свежая), остальное запрашивается заново.
+    // Ответы с ошибками не кэшируются. If-None-Match клиента сверяется с ETag ответа здесь же
+    protected ResponseEntity<Object> cachedGet(ServerResponseCache cache, String path, @Nullable Long userId,
+                                               @Nullable Map<String, Object> parameters,
+                                               @Nullable String ifNoneMatch) {
+        if (!cache.isEnabled()) {
+            return get(path, userId, parameters, ifNoneMatch);
+        }
+        ServerResponseCache.Key key = ServerResponseCache.key(path, userId, parameters);
+        ServerResponseCache.Entry cached = cache.get(key);
+        ResponseEntity<Object> response = cached != null && cache.isFresh(cached)
+                ? relay(HttpStatus.OK, cached.headers(), cached.body())
+                : cache.coalesce(key, () -> revalidate(cache, key, cached, path, userId, parameters));
+        if (ifNoneMatch != null && response.getStatusCode() == HttpStatus.OK
+                && matches(ifNoneMatch, response.getHeaders().getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(response.getHeaders().getETag()).build();
+        }
+        return response;
     }
 
     protected <T> ResponseEntity<Object> post(String path, T body) {
@@ -40,7 +83,7 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.POST, path, defaultHeaders(userId), parameters, body);
     }
 
     protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
@@ -48,7 +91,7 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PUT, path, defaultHeaders(userId), parameters, body);
     }
 
     protected <T> ResponseEntity<Object> patch(String path, T body) {
@@ -64,7 +107,7 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PATCH, path, defaultHeaders(userId), parameters, body);
     }
 
     protected ResponseEntity<Object> delete(String path) {
@@ -76,23 +119,87 @@ public class BaseClient {
     }
 
     protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+        return makeAndSendRequest(HttpMethod.DELETE, path, defaultHeaders(userId), parameters, null);
+    }
+
+    // Тело ответа сервера копируется клиенту по мере чтения, не накапливаясь в gateway.
+    // Ответ с ошибкой невелик и передаётся целиком
+    protected ResponseEntity<StreamingResponseBody> stream(String path, long userId,
+                                                           @Nullable Map<String, Object> parameters) throws IOException {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.ALL));
+        ClientHttpResponse shareitServerResponse = transport.open(HttpMethod.GET, path, headers, parameters);
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(shareitServerResponse.getStatusCode())
+                .headers(relayedHeaders(shareitServerResponse.getHeaders()));
+
+        if (!shareitServerResponse.getStatusCode().is2xxSuccessful()) {
+            try (shareitServerResponse) {
+                byte[] body = shareitServerResponse.getBody().readAllBytes();
+                return responseBuilder.body(out -> out.write(body));
+            }
+        }
+
+        return responseBuilder.body(out -> {
+            try (shareitServerResponse; InputStream body = shareitServerResponse.getBody()) {
+                body.transferTo(out);
+            }
+        });
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, HttpHeaders headers, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        // Ответ сервера передаётся клиенту как есть, в байтах: без разбора JSON в дерево объектов
+        // и повторной сериализации. Валидируется только входящий запрос
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            shareitServerResponse = transport.exchange(method, path, headers, body, parameters);
+        } catch (HttpStatusCodeException e) {
+            return relay(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+        return relay(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
+    private ResponseEntity<Object> revalidate(ServerResponseCache cache, ServerResponseCache.Key key,
+                                              @Nullable ServerResponseCache.Entry cached, String path,
+                                              @Nullable Long userId, @Nullable Map<String, Object> parameters) {
+        long generation = cache.generation();
+        HttpHeaders headers = defaultHeaders(userId);
+        if (cached != null && cached.etag() != null) {
+            headers.setIfNoneMatch(cached.etag());
+        }
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
+            shareitServerResponse = transport.exchange(HttpMethod.GET, path, headers, null, parameters);
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return relay(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+
+        if (cached != null && shareitServerResponse.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            cache.renew(key, cached, generation);
+            return relay(HttpStatus.OK, cached.headers(), cached.body());
+        }
+        if (shareitServerResponse.getStatusCode() == HttpStatus.OK && shareitServerResponse.getBody() != null) {
+            ServerResponseCache.Entry entry = cache.put(key, relayedHeaders(shareitServerResponse.getHeaders()),
+                    shareitServerResponse.getBody(), generation);
+            return relay(HttpStatus.OK, entry.headers(), entry.body());
+        }
+        return relay(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    // Слабое сравнение, как у сервера: W/"1" и "1" совпадают, * совпадает с любым ETag
+    private static boolean matches(String ifNoneMatch, @Nullable String etag) {
+        if (etag == null) {
+            return false;
+        }
+        String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag)) {
+                return true;
+            }
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return false;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,17 +212,26 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static ResponseEntity<Object> relay(HttpStatusCode status, @Nullable HttpHeaders serverHeaders,
+                                                @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status).headers(relayedHeaders(serverHeaders));
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
     }
+
+    private static HttpHeaders relayedHeaders(@Nullable HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.addAll(name, values);
+                }
+            });
+        }
+        return headers;
+    }
 }
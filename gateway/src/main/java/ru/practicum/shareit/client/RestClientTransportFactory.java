@@ -0,0 +1,68 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.util.Map;
+
+/**
+ * Транспорт на RestClient. Вызов блокирующий, но при spring.threads.virtual.enabled=true
+ * запрос обслуживается виртуальным потоком, который на время ожидания ответа сервера
+ * освобождает поток-носитель.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit-server.client", havingValue = "rest-client")
+public class RestClientTransportFactory implements ServerTransportFactory {
+
+    private final String serverUrl;
+    private final RestClient.Builder builder;
+    private final ClientHttpRequestFactory serverRequestFactory;
+
+    public RestClientTransportFactory(@Value("${shareit-server.url}") String serverUrl,
+                                      RestClient.Builder builder,
+                                      ClientHttpRequestFactory serverRequestFactory) {
+        this.serverUrl = serverUrl;
+        this.builder = builder;
+        this.serverRequestFactory = serverRequestFactory;
+    }
+
+    @Override
+    public ServerTransport create(String apiPrefix) {
+        RestClient rest = builder.clone()
+                .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .requestFactory(serverRequestFactory)
+                .build();
+        return new ServerTransport() {
+            @Override
+            public ResponseEntity<byte[]> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                   @Nullable Object body, @Nullable Map<String, Object> parameters) {
+                RestClient.RequestBodySpec request = rest.method(method)
+                        .uri(path, parameters != null ? parameters : Map.of())
+                        .headers(requestHeaders -> requestHeaders.addAll(headers));
+                if (body != null) {
+                    request.body(body);
+                }
+                return request.retrieve().toEntity(byte[].class);
+            }
+
+            @Override
+            public ClientHttpResponse open(HttpMethod method, String path, HttpHeaders headers,
+                                           @Nullable Map<String, Object> parameters) {
+                // close = false: ответ остаётся открытым после выхода из exchange
+                return rest.method(method)
+                        .uri(path, parameters != null ? parameters : Map.of())
+                        .headers(requestHeaders -> requestHeaders.addAll(headers))
+                        .exchange((request, response) -> response, false);
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "shareit-server.client", havingValue = "rest-template")
+public class RestTemplateTransportFactory implements ServerTransportFactory {
+
+    private final String serverUrl;
+    private final RestTemplateBuilder builder;
+    private final ClientHttpRequestFactory serverRequestFactory;
+    private final ObjectProvider<Tracer> tracer;
+    private final ObjectProvider<Propagator> propagator;
+
+    public RestTemplateTransportFactory(@Value("${shareit-server.url}") String serverUrl,
+                                        RestTemplateBuilder builder,
+                                        ClientHttpRequestFactory serverRequestFactory,
+                                        ObjectProvider<Tracer> tracer,
+                                        ObjectProvider<Propagator> propagator) {
+        this.serverUrl = serverUrl;
+        this.builder = builder;
+        this.serverRequestFactory = serverRequestFactory;
+        this.tracer = tracer;
+        this.propagator = propagator;
+    }
+
+    @Override
+    public ServerTransport create(String apiPrefix) {
+        RestTemplate rest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .requestFactory(() -> serverRequestFactory)
+                .build();
+        return new ServerTransport() {
+            @Override
+            public ResponseEntity<byte[]> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                   @Nullable Object body, @Nullable Map<String, Object> parameters) {
+                HttpEntity<Object> requestEntity = new HttpEntity<>(body, headers);
+                if (parameters != null) {
+                    return rest.exchange(path, method, requestEntity, byte[].class, parameters);
+                }
+                return rest.exchange(path, method, requestEntity, byte[].class);
+            }
+
+            @Override
+            public ClientHttpResponse open(HttpMethod method, String path, HttpHeaders headers,
+                                           @Nullable Map<String, Object> parameters) throws IOException {
+                // RestTemplate закрывает ответ сам, поэтому запрос выполняется напрямую через его фабрику
+                URI uri = rest.getUriTemplateHandler().expand(path, parameters != null ? parameters : Map.of());
+                ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+                request.getHeaders().addAll(headers);
+                injectTraceContext(request.getHeaders());
+                return request.execute();
+            }
+        };
+    }
+
+    // Запрос мимо RestTemplate не проходит через его наблюдение, поэтому контекст трассировки
+    // (traceparent) передаётся серверу вручную - иначе выгрузка на сервере начнёт новую трассу
+    private void injectTraceContext(HttpHeaders headers) {
+        Tracer currentTracer = tracer.getIfAvailable();
+        Propagator currentPropagator = propagator.getIfAvailable();
+        if (currentTracer == null || currentPropagator == null) {
+            return;
+        }
+        TraceContext context = currentTracer.currentTraceContext().context();
+        if (context != null) {
+            currentPropagator.inject(context, headers, HttpHeaders::set);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Кэш успешных ответов shareit-server на GET (см. BaseClient.cachedGet), ограниченный размером и временем.
+ * Ответ отдаётся без обращения к серверу ttl после получения или перепроверки; затем, пока запись
+ * хранится (retention), она перепроверяется условным запросом с If-None-Match, если сервер прислал ETag.
+ * Конкурентные запросы одного ключа к серверу объединяются в один.
+ */
+public class ServerResponseCache implements MeterBinder {
+
+    public record Key(String path, String parameters, @Nullable Long userId) {
+    }
+
+    // Тело и заголовки ответа 200 OK в том виде, в котором они передаются клиенту
+    public record Entry(HttpHeaders headers, byte[] body, long checkedAt) {
+
+        @Nullable
+        public String etag() {
+            return headers.getETag();
+        }
+    }
+
+    private final String name;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Cache<Key, Entry> cache;
+    private final ConcurrentMap<Key, CompletableFuture<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+    // Увеличивается при каждой инвалидации: ответ, запрошенный до неё, в кэш уже не кладётся
+    private final AtomicLong generation = new AtomicLong();
+
+    public ServerResponseCache(String name, boolean enabled, Duration ttl, Duration retention, long maxSize) {
+        this.name = name;
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+    }
+
+    public static Key key(String path, @Nullable Long userId, @Nullable Map<String, Object> parameters) {
+        return new Key(path, parameters == null ? "" : new TreeMap<>(parameters).toString(), userId);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Nullable
+    public Entry get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public boolean isFresh(Entry entry) {
+        return System.nanoTime() - entry.checkedAt() < ttlNanos;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // Кладёт ответ, если с начала запроса (generation) не было инвалидации
+    public Entry put(Key key, HttpHeaders headers, byte[] body, long requestGeneration) {
+        Entry entry = new Entry(headers, body, System.nanoTime());
+        if (generation.get() == requestGeneration) {
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    // Сервер подтвердил (304), что запись не изменилась: она снова свежая
+    public void renew(Key key, Entry entry, long requestGeneration) {
+        put(key, entry.headers(), entry.body(), requestGeneration);
+    }
+
+    public void invalidate(Predicate<Key> affected) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(affected);
+        // Запрос, начатый до изменения, не должен достаться тем, кто пришёл после
+        inFlight.keySet().removeIf(affected);
+    }
+
+    // Первый запрос ключа идёт на сервер, остальные ждут его ответа
+    public ResponseEntity<Object> coalesce(Key key, Supplier<ResponseEntity<Object>> request) {
+        CompletableFuture<ResponseEntity<Object>> own = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            ResponseEntity<Object> response = request.get();
+            own.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Отправка запроса на shareit-server.
+ * Ответы с кодом ошибки приходят как HttpStatusCodeException.
+ */
+public interface ServerTransport {
+
+    ResponseEntity<byte[]> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                    @Nullable Object body, @Nullable Map<String, Object> parameters);
+
+    /**
+     * Отправляет запрос без тела и возвращает ответ непрочитанным, с любым кодом статуса.
+     * Тело читается потоком; закрыть ответ (и вернуть соединение в пул) должен вызывающий.
+     */
+    ClientHttpResponse open(HttpMethod method, String path, HttpHeaders headers,
+                            @Nullable Map<String, Object> parameters) throws IOException;
+}
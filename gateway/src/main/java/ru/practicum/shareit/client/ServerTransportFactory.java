@@ -0,0 +1,10 @@
+package ru.practicum.shareit.client;
+
+/**
+ * Создаёт транспорт для клиента ресурса shareit-server с префиксом пути apiPrefix.
+ * Реализация выбирается свойством shareit-server.client.
+ */
+public interface ServerTransportFactory {
+
+    ServerTransport create(String apiPrefix);
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportReportDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Потоковый импорт вещей: тело запроса (NDJSON или JSON-массив) читается по одной вещи,
+ * каждая валидируется, корректные пересылаются на сервер пачками по chunkSize.
+ * В памяти одновременно держится только текущая пачка и результаты по строкам.
+ */
+@Slf4j
+@Service
+public class ItemBulkImporter {
+
+    private final ItemClient itemClient;
+    private final Validator validator;
+    private final ObjectReader itemReader;
+    private final ObjectReader resultsReader;
+    private final ObjectReader errorReader;
+    private final int chunkSize;
+
+    public ItemBulkImporter(ItemClient itemClient,
+                            Validator validator,
+                            ObjectMapper objectMapper,
+                            @Value("${shareit.import.chunk-size}") int chunkSize) {
+        this.itemClient = itemClient;
+        this.validator = validator;
+        this.itemReader = objectMapper.readerFor(ItemDto.class);
+        this.resultsReader = objectMapper.readerForListOf(ItemImportResultDto.class);
+        this.errorReader = objectMapper.reader();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Импортирует вещи из потока. Если сервер отклонил первую же пачку (например, владелец не найден),
+     * ничего не создано и его ответ возвращается как есть. Если отклонена одна из следующих пачек,
+     * вещи из принятых пачек уже созданы: отчёт сохраняет их id, а строки отклонённой пачки
+     * и все не отправленные после неё помечаются ошибкой с описанием отказа сервера.
+     */
+    public ResponseEntity<Object> importItems(long userId, InputStream body) throws IOException {
+        List<ItemImportResultDto> results = new ArrayList<>();
+        List<ItemImportRowDto> chunk = new ArrayList<>(chunkSize);
+        boolean accepted = false;
+        // Описание отказа сервера; после отказа пачки больше не отправляются
+        String rejection = null;
+
+        // readValues читает и последовательность объектов через пробелы/переводы строк,
+        // и элементы JSON-массива верхнего уровня
+        try (MappingIterator<ItemDto> items = itemReader.readValues(body)) {
+            int row = 0;
+            while (true) {
+                row++;
+                ItemDto item;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    item = items.nextValue();
+                } catch (JsonProcessingException e) {
+                    // После ошибки разбора границы следующих строк надёжно не восстановить
+                    results.add(ItemImportResultDto.failed(row, "Malformed JSON: " + e.getOriginalMessage()));
+                    break;
+                }
+
+                String violations = validator.validate(item).stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                if (!violations.isEmpty()) {
+                    results.add(ItemImportResultDto.failed(row, violations));
+                    continue;
+                }
+                if (rejection != null) {
+                    results.add(ItemImportResultDto.failed(row,
+                            "Not sent after the server rejected a previous chunk: " + rejection));
+                    continue;
+                }
+
+                chunk.add(new ItemImportRowDto(row, item));
+                if (chunk.size() == chunkSize) {
+                    ResponseEntity<Object> rejected = send(userId, chunk, results);
+                    if (rejected != null && !accepted) {
+                        return rejected;
+                    }
+                    rejection = rejected != null ? describe(rejected) : null;
+                    accepted = true;
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            ResponseEntity<Object> rejected = send(userId, chunk, results);
+            if (rejected != null && !accepted) {
+                return rejected;
+            }
+        }
+
+        results.sort(Comparator.comparingInt(ItemImportResultDto::row));
+        int created = (int) results.stream().filter(result -> result.id() != null).count();
+        log.info("Imported {} items for user {}, {} rows rejected", created, userId, results.size() - created);
+        return ResponseEntity.ok(new ItemImportReportDto(created, results.size() - created, results));
+    }
+
+    // Отправляет пачку и дописывает результаты сервера. При отказе строки пачки помечаются ошибкой
+    // и возвращается ответ сервера
+    private ResponseEntity<Object> send(long userId, List<ItemImportRowDto> chunk,
+                                        List<ItemImportResultDto> results) throws IOException {
+        ResponseEntity<Object> response = itemClient.importItems(userId, chunk);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            String error = "Rejected by server: " + describe(response);
+            for (ItemImportRowDto row : chunk) {
+                results.add(ItemImportResultDto.failed(row.row(), error));
+            }
+            chunk.clear();
+            return response;
+        }
+        chunk.clear();
+        List<ItemImportResultDto> chunkResults = resultsReader.readValue((byte[]) response.getBody());
+        results.addAll(chunkResults);
+        return null;
+    }
+
+    // Описание из тела ошибки сервера ({"error": ..., "description": ...}), иначе статус ответа
+    private String describe(ResponseEntity<Object> response) {
+        if (response.getBody() instanceof byte[] body) {
+            try {
+                JsonNode description = errorReader.readTree(body).path("description");
+                if (description.isTextual()) {
+                    return description.asText();
+                }
+            } catch (IOException e) {
+                log.debug("Unreadable server error body: {}", e.getMessage());
+            }
+        }
+        return "HTTP " + response.getStatusCode().value();
+    }
+}
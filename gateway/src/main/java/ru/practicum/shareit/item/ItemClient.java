@@ -1,51 +1,91 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    private static final String SEARCH_PATH = "/search?text={text}&from={from}&size={size}";
+
+    private final ServerResponseCache responseCache;
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public ItemClient(ServerTransportFactory transportFactory, ServerResponseCache itemResponseCache) {
+        super(transportFactory.create(API_PREFIX));
+        this.responseCache = itemResponseCache;
     }
 
     public ResponseEntity<Object> addItem(long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+        return invalidateOnSuccess(post("", userId, itemDto), null);
+    }
+
+    public ResponseEntity<Object> importItems(long userId, List<ItemImportRowDto> rows) {
+        return invalidateOnSuccess(post("/bulk", userId, rows), null);
     }
 
     public ResponseEntity<Object> updateItem(long userId, Long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+        return invalidateOnSuccess(patch("/" + itemId, userId, itemDto), itemId);
     }
 
-    public ResponseEntity<Object> getItemById(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+    // Кэшируется только публичная карточка: владельцу сервер добавляет бронирования,
+    // которые меняются мимо ItemClient
+    public ResponseEntity<Object> getItemById(Long itemId, Long userId, String ifNoneMatch) {
+        if (userId == null) {
+            return cachedGet(responseCache, "/" + itemId, null, null, ifNoneMatch);
+        }
+        return get("/" + itemId, userId, null, ifNoneMatch);
     }
 
     public ResponseEntity<Object> getItemsByOwner(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> searchItems(String text) {
-        return get("/search?text=" + text);
+    public ResponseEntity<Object> searchItems(String text, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        );
+        return cachedGet(responseCache, SEARCH_PATH, null, parameters, null);
+    }
+
+    public ResponseEntity<Object> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
     }
 
     public ResponseEntity<Object> addComment(long userId, Long itemId, CommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+        ResponseEntity<Object> response = post("/" + itemId + "/comment", userId, commentDto);
+        if (response.getStatusCode().is2xxSuccessful()) {
+            // Комментарии видны в карточке вещи, но не в результатах поиска
+            String itemPath = "/" + itemId;
+            responseCache.invalidate(key -> key.path().equals(itemPath));
+        }
+        return response;
+    }
+
+    // Новая или изменённая вещь может появиться в поиске или пропасть из него;
+    // изменённая (itemId != null) - ещё и в своей карточке
+    private ResponseEntity<Object> invalidateOnSuccess(ResponseEntity<Object> response, Long itemId) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            String itemPath = itemId == null ? null : "/" + itemId;
+            responseCache.invalidate(key -> key.path().equals(SEARCH_PATH) || key.path().equals(itemPath));
+        }
+        return response;
     }
 }
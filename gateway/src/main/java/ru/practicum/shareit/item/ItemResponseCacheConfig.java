@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.client.ServerResponseCache;
+
+import java.time.Duration;
+
+/**
+ * Кэш публичных ответов о вещах (карточка без X-Sharer-User-Id и поиск), которые витрина запрашивает
+ * многократно. Изменения через gateway (ItemClient) сбрасывают затронутые записи сразу,
+ * прочие изменения видны не позже ttl.
+ */
+@Configuration
+public class ItemResponseCacheConfig {
+
+    // Попадания, промахи и вытеснения - в /actuator/metrics/cache.*, тег cache=itemResponses
+    @Bean
+    public ServerResponseCache itemResponseCache(
+            @Value("${shareit.item-cache.enabled}") boolean enabled,
+            @Value("${shareit.item-cache.ttl}") Duration ttl,
+            @Value("${shareit.item-cache.retention}") Duration retention,
+            @Value("${shareit.item-cache.max-size}") long maxSize) {
+        return new ServerResponseCache("itemResponses", enabled, ttl, retention, maxSize);
+    }
+}
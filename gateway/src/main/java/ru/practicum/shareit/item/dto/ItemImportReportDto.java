@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.dto;
+
+import java.util.List;
+
+/**
+ * Итог массового импорта: сколько вещей создано, сколько строк отклонено, и результат по каждой строке.
+ */
+public record ItemImportReportDto(
+        int created,
+        int failed,
+        List<ItemImportResultDto> rows
+) {
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Результат импорта строки: id созданной вещи либо причина отказа.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ItemImportResultDto(
+        int row,
+        Long id,
+        String error
+) {
+    public static ItemImportResultDto failed(int row, String error) {
+        return new ItemImportResultDto(row, null, error);
+    }
+}
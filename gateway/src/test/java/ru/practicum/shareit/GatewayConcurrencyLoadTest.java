@@ -0,0 +1,165 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочный стенд: максимальная выдерживаемая конкурентность gateway
+ * в режиме платформенных потоков с RestTemplate и в режиме виртуальных потоков с RestClient.
+ * Сервер подменён заглушкой, отвечающей с задержкой SERVER_DELAY.
+ * Уровень конкурентности считается выдерживаемым, пока 99-й перцентиль задержки
+ * не превышает LATENCY_LIMIT.
+ * Запуск: mvn -pl gateway test -Dtest=GatewayConcurrencyLoadTest -Dshareit.load-test=true
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.load-test", matches = "true")
+class GatewayConcurrencyLoadTest {
+
+    private static final Duration SERVER_DELAY = Duration.ofMillis(500);
+    private static final int[] CONCURRENCY_LEVELS = {25, 50, 100, 200, 400};
+    private static final int REQUESTS_PER_CLIENT = 5;
+    private static final int PLATFORM_THREADS = 50;
+    private static final int WARMUP_ROUNDS = 3;
+    // Выше этого 99-го перцентиля запросы уже ждут в очереди, а не сервер
+    private static final Duration LATENCY_LIMIT = SERVER_DELAY.multipliedBy(2);
+
+    private static HttpServer slowServer;
+    private static HttpClient httpClient;
+
+    @BeforeAll
+    static void startSlowServer() throws IOException {
+        // Иначе заглушка закрывает keep-alive соединения сверх 200 и gateway получает NoHttpResponse
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "5000");
+        slowServer = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        slowServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        slowServer.createContext("/users", exchange -> {
+            try {
+                Thread.sleep(SERVER_DELAY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "[{\"id\":1,\"name\":\"User\",\"email\":\"user@example.com\"}]"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        slowServer.start();
+        httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @AfterAll
+    static void stopSlowServer() {
+        slowServer.stop(0);
+        httpClient.close();
+    }
+
+    @Test
+    void virtualThreadsWithRestClient_shouldSustainMoreConcurrencyThanPlatformThreads() throws Exception {
+        // When
+        int platform = maxSustainableConcurrency("platform threads + rest-template", false, "rest-template");
+        int virtual = maxSustainableConcurrency("virtual threads + rest-client", true, "rest-client");
+
+        // Then
+        log.warn("Max sustainable concurrency: platform threads = {}, virtual threads = {}", platform, virtual);
+        assertTrue(virtual >= platform);
+    }
+
+    private int maxSustainableConcurrency(String mode, boolean virtualThreads, String client) throws Exception {
+        // Аргументы командной строки перекрывают настройки из application*.properties
+        try (ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class).run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--shareit-server.client=" + client,
+                "--shareit-server.url=http://localhost:" + slowServer.getAddress().getPort(),
+                "--shareit-server.http.max-connections=2000",
+                // Отладочный лог на каждый запрос исказил бы замер
+                "--logging.level.ru.practicum.shareit=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.springframework.web.client.RestTemplate=WARN")) {
+            int port = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/users");
+            // Прогрев JIT, чтобы первый уровень не штрафовался за холодный старт
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                run(uri, CONCURRENCY_LEVELS[0]);
+            }
+
+            int sustained = 0;
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                long started = System.nanoTime();
+                List<Long> latencies = run(uri, concurrency);
+                double seconds = (System.nanoTime() - started) / 1e9;
+                long errors = latencies.stream().filter(latency -> latency < 0).count();
+                Duration p99 = Duration.ofNanos(percentile(latencies, 0.99));
+                log.warn("{}: concurrency {} -> {} req/s, p99 {} ms, errors {}", mode, concurrency,
+                        Math.round(latencies.size() / seconds), p99.toMillis(), errors);
+                if (errors > 0 || p99.compareTo(LATENCY_LIMIT) > 0) {
+                    break;
+                }
+                sustained = concurrency;
+            }
+            return sustained;
+        }
+    }
+
+    // Закрытая модель нагрузки: concurrency клиентов, каждый шлёт запросы подряд.
+    // Неуспешный запрос отмечается отрицательной задержкой
+    private List<Long> run(URI uri, int concurrency) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    for (int j = 0; j < REQUESTS_PER_CLIENT; j++) {
+                        long started = System.nanoTime();
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        long latency = System.nanoTime() - started;
+                        latencies.add(response.statusCode() == 200 ? latency : -latency);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return latencies;
+    }
+
+    private static long percentile(List<Long> values, double percentile) {
+        List<Long> sorted = new ArrayList<>(values.stream().map(Math::abs).toList());
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(percentile * sorted.size()) - 1);
+    }
+}
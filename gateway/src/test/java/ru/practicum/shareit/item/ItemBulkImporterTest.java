@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.item.dto.ItemImportReportDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Импорт пачками по 2 строки поверх заглушки сервера, которая принимает первые acceptedChunks пачек
+ * и отклоняет остальные.
+ */
+class ItemBulkImporterTest {
+
+    private static final String ITEM = "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}";
+    private static final String INVALID_ITEM = "{\"name\":\"\",\"description\":\"Ударная\",\"available\":true}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void importItems_laterChunkRejected_shouldKeepCreatedRowsAndFailTheRest() throws Exception {
+        // Given - строки 1-2 приняты, 3-4 отклонены, 5 не отправлена, 6 не прошла валидацию
+        ItemBulkImporter importer = importer(new BulkTransport(1));
+        String body = String.join("\n", ITEM, ITEM, ITEM, ITEM, ITEM, INVALID_ITEM);
+
+        // When
+        ResponseEntity<Object> response = importer.importItems(7L, stream(body));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ItemImportReportDto report = (ItemImportReportDto) response.getBody();
+        assertEquals(2, report.created());
+        assertEquals(4, report.failed());
+        Map<Integer, ItemImportResultDto> rows = report.rows().stream()
+                .collect(Collectors.toMap(ItemImportResultDto::row, row -> row));
+        assertEquals(101L, rows.get(1).id());
+        assertEquals(102L, rows.get(2).id());
+        assertEquals("Rejected by server: User with id=7 not found", rows.get(3).error());
+        assertEquals("Rejected by server: User with id=7 not found", rows.get(4).error());
+        assertEquals("Not sent after the server rejected a previous chunk: User with id=7 not found",
+                rows.get(5).error());
+        assertEquals("Name cannot be empty", rows.get(6).error());
+    }
+
+    @Test
+    void importItems_firstChunkRejected_shouldRelayServerResponse() throws Exception {
+        // Given
+        ItemBulkImporter importer = importer(new BulkTransport(0));
+
+        // When
+        ResponseEntity<Object> response = importer.importItems(7L, stream(String.join("\n", ITEM, ITEM, ITEM)));
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    private ItemBulkImporter importer(BulkTransport transport) {
+        ServerResponseCache cache = new ServerResponseCache("itemResponses", false, Duration.ZERO, Duration.ZERO, 1);
+        ItemClient itemClient = new ItemClient(apiPrefix -> transport, cache);
+        return new ItemBulkImporter(itemClient, Validation.buildDefaultValidatorFactory().getValidator(),
+                objectMapper, 2);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private class BulkTransport implements ServerTransport {
+        private final int acceptedChunks;
+        private int chunks;
+
+        BulkTransport(int acceptedChunks) {
+            this.acceptedChunks = acceptedChunks;
+        }
+
+        @Override
+        public ResponseEntity<byte[]> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                               Object body, Map<String, Object> parameters) {
+            if (chunks++ >= acceptedChunks) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("{\"error\":\"Not found\",\"description\":\"User with id=7 not found\"}"
+                                .getBytes(StandardCharsets.UTF_8));
+            }
+            @SuppressWarnings("unchecked")
+            List<ItemImportRowDto> rows = (List<ItemImportRowDto>) body;
+            List<ItemImportResultDto> results = IntStream.range(0, rows.size())
+                    .mapToObj(i -> new ItemImportResultDto(rows.get(i).row(), 100L + rows.get(i).row(), null))
+                    .toList();
+            try {
+                return ResponseEntity.ok(objectMapper.writeValueAsBytes(results));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public ClientHttpResponse open(HttpMethod method, String path, HttpHeaders headers,
+                                       Map<String, Object> parameters) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Кэш публичных ответов ItemClient поверх заглушки транспорта, которая запоминает запросы
+ * и отвечает 304 на If-None-Match с текущим ETag.
+ */
+class ItemClientCacheTest {
+
+    private FakeTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        transport = new FakeTransport();
+    }
+
+    @Test
+    void getItemById_withoutUser_shouldBeServedFromCacheWithinTtl() {
+        // Given
+        ItemClient itemClient = itemClient(Duration.ofMinutes(1));
+
+        // When
+        ResponseEntity<Object> first = itemClient.getItemById(1L, null, null);
+        ResponseEntity<Object> second = itemClient.getItemById(1L, null, null);
+
+        // Then
+        assertEquals(1, transport.requests.size());
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertArrayEquals((byte[]) first.getBody(), (byte[]) second.getBody());
+        assertEquals("\"1\"", second.getHeaders().getETag());
+    }
+
+    @Test
+    void getItemById_withUser_shouldNotBeCached() {
+        // Given
+        ItemClient itemClient = itemClient(Duration.ofMinutes(1));
+
+        // When
+        itemClient.getItemById(1L, 5L, null);
+        itemClient.getItemById(1L, 5L, null);
+
+        // Then
+        assertEquals(2, transport.requests.size());
+        assertEquals("5", transport.requests.get(1).getFirst("X-Sharer-User-Id"));
+    }
+
+    @Test
+    void getItemById_afterTtl_shouldRevalidateWithEtag() {
+        // Given
+        ItemClient itemClient = itemClient(Duration.ZERO);
+        ResponseEntity<Object> first = itemClient.getItemById(1L, null, null);
+
+        // When
+        ResponseEntity<Object> revalidated = itemClient.getItemById(1L, null, null);
+
+        // Then
+        assertEquals(2, transport.requests.size());
+        assertEquals(List.of("\"1\""), transport.requests.get(1).getIfNoneMatch());
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertArrayEquals((byte[]) first.getBody(), (byte[]) revalidated.getBody());
+    }
+
+    @Test
+    void getItemById_withMatchingIfNoneMatch_shouldAnswerNotModifiedFromCache() {
+        // Given
+        ItemClient itemClient = itemClient(Duration.ofMinutes(1));
+        itemClient.getItemById(1L, null, null);
+
+        // When
+        ResponseEntity<Object> response = itemClient.getItemById(1L, null, "W/\"1\"");
+
+        // Then
+        assertEquals(1, transport.requests.size());
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"1\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void getItemById_withUser_shouldPassIfNoneMatchToServer() {
+        // Given
+        ItemClient itemClient = itemClient(Duration.ofMinutes(1));
+
+        // When
+        ResponseEntity<Object> response = itemClient.getItemById(1L, 5L, "\"1\"");
+
+        // Then
+        assertEquals(List.of("\"1\""), transport.requests.get(0).getIfNoneMatch());
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void updateItem_shouldInvalidateItemAndSearch() {
+        // Given
+        ItemClient itemClient = itemClient(Duration.ofMinutes(1));
+        itemClient.getItemById(1L, null, null);
+        itemClient.getItemById(2L, null, null);
+        itemClient.searchItems("дрель", 0, 10);
+
+        // When
+        itemClient.updateItem(7L, 1L, new ItemDto(1L, "Дрель", "Ударная", true, null));
+        itemClient.getItemById(1L, null, null);
+        itemClient.getItemById(2L, null, null);
+        itemClient.searchItems("дрель", 0, 10);
+
+        // Then
+        // Вещь 1 и поиск запрошены заново, вещь 2 взята из кэша
+        assertEquals(5, transport.requests.size());
+        assertTrue(transport.requests.get(3).getIfNoneMatch().isEmpty());
+    }
+
+    private ItemClient itemClient(Duration ttl) {
+        ServerResponseCache cache = new ServerResponseCache("itemResponses", true, ttl, Duration.ofMinutes(10), 100);
+        return new ItemClient(apiPrefix -> transport, cache);
+    }
+
+    private static class FakeTransport implements ServerTransport {
+        private final List<HttpHeaders> requests = new ArrayList<>();
+        private int version = 1;
+
+        @Override
+        public ResponseEntity<byte[]> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                               Object body, Map<String, Object> parameters) {
+            if (method != HttpMethod.GET) {
+                version++;
+                return ResponseEntity.ok(new byte[0]);
+            }
+            requests.add(headers);
+            String etag = "\"" + version + "\"";
+            if (headers.getIfNoneMatch().contains(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .body(("{\"path\":\"" + path + "\"}").getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public ClientHttpResponse open(HttpMethod method, String path, HttpHeaders headers,
+                                       Map<String, Object> parameters) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStateCountsDto;
+import ru.practicum.shareit.booking.export.BookingExport;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -27,23 +36,63 @@ public class BookingController {
         return bookingService.approveBooking(userId, bookingId, approved);
     }
 
+    // Условный запрос (If-None-Match) проверяет только версию: при совпадении - 304 без чтения бронирования.
+    // ETag берётся до чтения ответа, поэтому может быть только старше него, но не новее
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                     @PathVariable Long bookingId) {
+                                     @PathVariable Long bookingId,
+                                     WebRequest request) {
+        Optional<String> etag = bookingService.getBookingVersionTag(userId, bookingId);
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return null;
+        }
         return bookingService.getBookingById(userId, bookingId);
     }
 
     @GetMapping
     public List<BookingDto> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                            @RequestParam(defaultValue = "ALL") String state) {
+                                            @RequestParam(defaultValue = "ALL") String state,
+                                            @RequestParam(defaultValue = "0") Integer from,
+                                            @RequestParam(defaultValue = "10") Integer size,
+                                            @RequestParam(required = false) Long after) {
         BookingState bookingState = BookingState.valueOf(state.toUpperCase());
-        return bookingService.getUserBookings(userId, bookingState);
+        return bookingService.getUserBookings(userId, bookingState, from, size, after);
     }
 
     @GetMapping("/owner")
     public List<BookingDto> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                             @RequestParam(defaultValue = "ALL") String state) {
+                                             @RequestParam(defaultValue = "ALL") String state,
+                                             @RequestParam(defaultValue = "0") Integer from,
+                                             @RequestParam(defaultValue = "10") Integer size,
+                                             @RequestParam(required = false) Long after) {
         BookingState bookingState = BookingState.valueOf(state.toUpperCase());
-        return bookingService.getOwnerBookings(ownerId, bookingState);
+        return bookingService.getOwnerBookings(ownerId, bookingState, from, size, after);
+    }
+
+    // Количество бронирований пользователя в каждом состоянии - для счётчиков фильтров
+    @GetMapping("/summary")
+    public BookingStateCountsDto getUserBookingCounts(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getUserBookingCounts(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingStateCountsDto getOwnerBookingCounts(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return bookingService.getOwnerBookingCounts(ownerId);
+    }
+
+    // История бронирований владельца целиком, потоком: NDJSON или CSV
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(
+            @RequestHeader("X-Sharer-User-Id") Long ownerId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        BookingExportFormat exportFormat = BookingExportFormat.valueOf(format.toUpperCase());
+        BookingExport export = bookingService.exportOwnerBookings(ownerId, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("bookings-owner-" + ownerId + "." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .body(export::writeTo);
     }
-}
\ No newline at end of file
+}
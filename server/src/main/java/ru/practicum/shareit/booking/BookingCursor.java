@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Позиция в списке бронирований, отсортированном по (start desc, id desc).
+ * Следующая страница начинается строго после бронирования с этими start и id.
+ */
+public record BookingCursor(LocalDateTime start, Long id) {
+
+    // Позиция перед первым бронированием: больше любых реальных значений start и id
+    public static final BookingCursor FIRST = new BookingCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.counts;
+
+import java.time.LocalDateTime;
+
+/**
+ * Количество бронирований по состояниям на момент запроса и ближайшие начало и окончание
+ * бронирования после него - в эти моменты CURRENT, PAST и FUTURE пересчитываются.
+ */
+public record BookingStateCounts(
+        Long all,
+        Long current,
+        Long past,
+        Long future,
+        Long waiting,
+        Long rejected,
+        LocalDateTime nextStart,
+        LocalDateTime nextEnd
+) {
+    // Когда счётчики перестают быть верными без изменения самих бронирований; null - никогда
+    public LocalDateTime changesAt() {
+        if (nextStart == null) {
+            return nextEnd;
+        }
+        if (nextEnd == null) {
+            return nextStart;
+        }
+        return nextStart.isBefore(nextEnd) ? nextStart : nextEnd;
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking.counts;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Счётчики бронирований по состояниям в памяти процесса - для пользователя как арендатора
+ * и как владельца. Запись живёт до ближайшего начала или окончания бронирования
+ * (тогда меняются CURRENT, PAST и FUTURE), но не дольше shareit.booking.counts-cache.ttl:
+ * это предел устаревания при нескольких экземплярах сервера.
+ * Создание и подтверждение бронирования удаляют записи арендатора и владельца (см. EntityCacheEvictor).
+ */
+@Component
+public class BookingStateCountsCache implements MeterBinder {
+
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    private record Key(Role role, Long userId) {
+    }
+
+    private final boolean enabled;
+    private final Cache<Key, BookingStateCounts> cache;
+
+    public BookingStateCountsCache(@Value("${shareit.booking.counts-cache.enabled}") boolean enabled,
+                                   @Value("${shareit.booking.counts-cache.ttl}") Duration ttl,
+                                   @Value("${shareit.booking.counts-cache.max-size}") long maxSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilCountsChange(ttl))
+                .recordStats()
+                .build();
+    }
+
+    public BookingStateCounts get(Role role, Long userId, Function<Long, BookingStateCounts> counter) {
+        if (!enabled) {
+            return counter.apply(userId);
+        }
+        return cache.get(new Key(role, userId), key -> counter.apply(key.userId()));
+    }
+
+    public void evict(Role role, Long userId) {
+        cache.invalidate(new Key(role, userId));
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "bookingStateCounts");
+    }
+
+    private record UntilCountsChange(Duration ttl) implements Expiry<Key, BookingStateCounts> {
+
+        @Override
+        public long expireAfterCreate(Key key, BookingStateCounts counts, long currentTime) {
+            LocalDateTime changesAt = counts.changesAt();
+            if (changesAt == null) {
+                return ttl.toNanos();
+            }
+            long untilChange = Duration.between(LocalDateTime.now(), changesAt).toNanos();
+            return Math.max(0, Math.min(ttl.toNanos(), untilChange));
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, BookingStateCounts counts, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, counts, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, BookingStateCounts counts, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.counts.BookingStateCounts;
 
 @UtilityClass
 public class BookingMapper {
@@ -27,6 +28,32 @@ public class BookingMapper {
         );
     }
 
+    public static BookingDto toBookingDto(BookingView view) {
+        if (view == null) {
+            return null;
+        }
+        return new BookingDto(
+                view.id(),
+                view.start(),
+                view.end(),
+                view.itemId(),
+                new BookingDto.Item(view.itemId(), view.itemName()),
+                new BookingDto.Booker(view.bookerId(), view.bookerName()),
+                view.status()
+        );
+    }
+
+    public static BookingStateCountsDto toBookingStateCountsDto(BookingStateCounts counts) {
+        return new BookingStateCountsDto(
+                counts.all(),
+                counts.current(),
+                counts.past(),
+                counts.future(),
+                counts.waiting(),
+                counts.rejected()
+        );
+    }
+
     public static Booking toBooking(BookingDto bookingDto) {
         if (bookingDto == null) {
             return null;
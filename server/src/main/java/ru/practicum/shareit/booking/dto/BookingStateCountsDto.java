@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Количество бронирований в каждом состоянии фильтра списков (BookingState).
+ */
+public record BookingStateCountsDto(
+        long all,
+        long current,
+        long past,
+        long future,
+        long waiting,
+        long rejected
+) {
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка бронирований.
+ * Заполняется проекцией одним запросом с join вещи и арендатора: сущности Booking,
+ * Item и User не попадают в контекст персистентности и не проверяются на изменения.
+ */
+public record BookingView(
+        Long id,
+        LocalDateTime start,
+        LocalDateTime end,
+        Status status,
+        Long itemId,
+        String itemName,
+        Long bookerId,
+        String bookerName
+) {
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Отложенная выгрузка: строки пишутся в поток ответа, когда контроллер уже вернул заголовки.
+ */
+@FunctionalInterface
+public interface BookingExport {
+
+    void writeTo(OutputStream out) throws IOException;
+}
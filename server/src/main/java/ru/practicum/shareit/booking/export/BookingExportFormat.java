@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.export;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Формат выгрузки бронирований.
+ */
+public enum BookingExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),    // бронирование - JSON-объект на строку
+    CSV(new MediaType("text", "csv"), "csv");          // заголовок и строки, разделитель - запятая
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    BookingExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
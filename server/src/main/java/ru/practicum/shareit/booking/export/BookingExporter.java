@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Пишет историю бронирований владельца прямо в поток ответа.
+ * Строки читаются курсором (см. BookingRepository.streamByItemOwnerId) и сразу сериализуются:
+ * ни список, ни сущности не накапливаются, поэтому память не зависит от числа бронирований.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingExporter {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final String CSV_HEADER = "id,start,end,status,itemId,itemName,bookerId,bookerName";
+
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+
+    // Курсор открыт, пока идёт запись, поэтому транзакция охватывает всю выгрузку
+    @Transactional(readOnly = true)
+    public void write(Long ownerId, BookingExportFormat format, OutputStream out) throws IOException {
+        long rows;
+        try (Stream<BookingView> bookings = bookingRepository.streamByItemOwnerId(ownerId)) {
+            rows = switch (format) {
+                case NDJSON -> writeNdjson(bookings.iterator(), out);
+                case CSV -> writeCsv(bookings.iterator(), out);
+            };
+        }
+        log.info("Exported {} bookings of owner {} as {}", rows, ownerId, format);
+    }
+
+    private long writeNdjson(Iterator<BookingView> bookings, OutputStream out) throws IOException {
+        // Без сброса после каждого объекта: в ответ уходят полные буферы, а не мелкие куски
+        ObjectWriter writer = objectMapper.writerFor(BookingDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        long rows = 0;
+        while (bookings.hasNext()) {
+            writer.writeValue(generator, BookingMapper.toBookingDto(bookings.next()));
+            generator.writeRaw('\n');
+            rows++;
+        }
+        generator.flush();
+        return rows;
+    }
+
+    private long writeCsv(Iterator<BookingView> bookings, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rows = 0;
+        while (bookings.hasNext()) {
+            BookingView booking = bookings.next();
+            writer.write(booking.id() + "," + DATE_TIME.format(booking.start()) + "," + DATE_TIME.format(booking.end())
+                    + "," + booking.status() + "," + booking.itemId() + "," + csvText(booking.itemName())
+                    + "," + booking.bookerId() + "," + csvText(booking.bookerName()));
+            writer.write('\n');
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    // Текст в кавычках, если содержит разделитель, кавычку или перевод строки (RFC 4180)
+    private static String csvText(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
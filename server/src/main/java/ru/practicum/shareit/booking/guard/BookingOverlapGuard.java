@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.guard;
+
+import ru.practicum.shareit.booking.Booking;
+
+/**
+ * Защита от пересечения периодов активных (WAITING и APPROVED) бронирований одной вещи.
+ */
+public interface BookingOverlapGuard {
+
+    /**
+     * Сохранить новое бронирование, если его период свободен.
+     *
+     * @throws ru.practicum.shareit.exception.ConflictException если период пересекается
+     *                                                          с активным бронированием вещи
+     */
+    Booking reserve(Booking booking);
+
+    /**
+     * Освободить период бронирования, которое перестало быть активным.
+     */
+    default void release(Booking booking) {
+    }
+}
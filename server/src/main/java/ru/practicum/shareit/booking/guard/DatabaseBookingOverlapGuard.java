@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.guard;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ErrorCode;
+
+import java.sql.SQLException;
+
+/**
+ * Пересечения отсекает сама PostgreSQL: ограничение ex_bookings_item_period
+ * (EXCLUDE USING gist по item_id и tsrange(start_date, end_date)) проверяется при вставке,
+ * поэтому конкурирующие бронирования разных вещей друг друга не блокируют.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.overlap-guard", havingValue = "database", matchIfMissing = true)
+public class DatabaseBookingOverlapGuard implements BookingOverlapGuard {
+
+    private static final String OVERLAP_CONSTRAINT = "ex_bookings_item_period";
+    // SQLState нарушения исключающего ограничения (exclusion_violation)
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private final BookingRepository bookingRepository;
+
+    @Override
+    public Booking reserve(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlap(e)) {
+                throw new ConflictException(ErrorCode.BOOKING_OVERLAP, booking.getItem().getId());
+            }
+            throw e;
+        }
+    }
+
+    // Пересечение - только нарушение ex_bookings_item_period; прочие ошибки целостности
+    // (внешний ключ, NOT NULL) передаются дальше как есть
+    static boolean isOverlap(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && OVERLAP_CONSTRAINT.equals(violation.getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking.guard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.IntervalSet;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ErrorCode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Проверка пересечений по индексу периодов в памяти процесса - для H2, где нет
+ * exclusion-ограничений. Блокируется только набор периодов бронируемой вещи,
+ * поэтому бронирования разных вещей проверяются параллельно.
+ * Годится только для одного экземпляра сервера.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.overlap-guard", havingValue = "in-memory")
+public class InMemoryBookingOverlapGuard implements BookingOverlapGuard {
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, IntervalSet> activeByItem = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Booking> active = bookingRepository.findByStatusIn(List.of(Status.WAITING, Status.APPROVED));
+        for (Booking booking : active) {
+            IntervalSet intervals = intervalsOf(booking.getItem().getId());
+            synchronized (intervals) {
+                intervals.add(toInterval(booking));
+            }
+        }
+        log.info("Booking overlap index built for {} active bookings", active.size());
+    }
+
+    @Override
+    public Booking reserve(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        IntervalSet intervals = intervalsOf(itemId);
+        synchronized (intervals) {
+            if (intervals.overlapsAny(booking.getStart(), booking.getEnd())) {
+                throw new ConflictException(ErrorCode.BOOKING_OVERLAP, itemId);
+            }
+            Booking saved = bookingRepository.save(booking);
+            intervals.add(toInterval(saved));
+            // Если транзакция откатится, период снова становится свободным
+            afterRollback(() -> remove(itemId, saved.getId()));
+            return saved;
+        }
+    }
+
+    @Override
+    public void release(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        BookingInterval interval = toInterval(booking);
+        remove(itemId, booking.getId());
+        // Если транзакция откатится, бронирование остаётся активным и снова занимает период
+        afterRollback(() -> {
+            IntervalSet intervals = intervalsOf(itemId);
+            synchronized (intervals) {
+                intervals.add(interval);
+            }
+        });
+    }
+
+    private void remove(Long itemId, Long bookingId) {
+        IntervalSet intervals = intervalsOf(itemId);
+        synchronized (intervals) {
+            intervals.remove(bookingId);
+        }
+    }
+
+    private IntervalSet intervalsOf(Long itemId) {
+        return activeByItem.computeIfAbsent(itemId, id -> new IntervalSet());
+    }
+
+    private static BookingInterval toInterval(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
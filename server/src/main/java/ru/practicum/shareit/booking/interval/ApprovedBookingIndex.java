@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Подтверждённые бронирования по вещам в памяти процесса - для календаря доступности.
+ * Строится из базы при старте, пополняется при подтверждении бронирования
+ * и очищается от бронирований удалённых пользователей,
+ * поэтому запрос календаря не обращается к базе.
+ * Годится только для одного экземпляра сервера.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApprovedBookingIndex {
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, IntervalSet> approvedByItem = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Booking> approved = bookingRepository.findByStatusIn(List.of(Status.APPROVED));
+        for (Booking booking : approved) {
+            add(booking.getItem().getId(), toInterval(booking));
+        }
+        log.info("Approved booking index built for {} bookings", approved.size());
+    }
+
+    public void approved(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        add(itemId, toInterval(booking));
+        // Если транзакция откатится, бронирование остаётся неподтверждённым
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        remove(itemId, booking.getId());
+                    }
+                }
+            });
+        }
+    }
+
+    /*
+     * Бронирования пользователя и бронирования его вещей удаляются вместе с ним каскадом в базе,
+     * мимо Hibernate, поэтому до удаления они находятся здесь и убираются из индекса,
+     * когда удаление зафиксировано.
+     */
+    public void userDeleted(Long userId) {
+        Map<Long, Long> itemByBooking = new HashMap<>();
+        Stream.concat(bookingRepository.findApprovedByBookerId(userId).stream(),
+                        bookingRepository.findApprovedByItemOwnerId(userId).stream())
+                .forEach(booking -> itemByBooking.put(booking.getId(), booking.getItem().getId()));
+        if (itemByBooking.isEmpty()) {
+            return;
+        }
+        Runnable removal = () -> itemByBooking.forEach((bookingId, itemId) -> remove(itemId, bookingId));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            removal.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    removal.run();
+                }
+            }
+        });
+    }
+
+    // Подтверждённые периоды вещи, пересекающиеся с [from, to), по возрастанию начала
+    public List<BookingInterval> busy(Long itemId, LocalDateTime from, LocalDateTime to) {
+        IntervalSet intervals = approvedByItem.get(itemId);
+        if (intervals == null) {
+            return List.of();
+        }
+        synchronized (intervals) {
+            return intervals.overlapping(from, to);
+        }
+    }
+
+    private void add(Long itemId, BookingInterval interval) {
+        IntervalSet intervals = approvedByItem.computeIfAbsent(itemId, id -> new IntervalSet());
+        synchronized (intervals) {
+            intervals.add(interval);
+        }
+    }
+
+    private void remove(Long itemId, Long bookingId) {
+        IntervalSet intervals = approvedByItem.get(itemId);
+        if (intervals != null) {
+            synchronized (intervals) {
+                intervals.remove(bookingId);
+            }
+        }
+    }
+
+    private static BookingInterval toInterval(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd());
+    }
+}
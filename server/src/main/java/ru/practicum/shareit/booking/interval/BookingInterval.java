@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.interval;
+
+import java.time.LocalDateTime;
+
+/**
+ * Период бронирования [start, end). Соседние периоды, где один заканчивается
+ * в момент начала другого, не пересекаются.
+ */
+public record BookingInterval(Long bookingId, LocalDateTime start, LocalDateTime end) {
+
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return start.isBefore(to) && end.isAfter(from);
+    }
+}
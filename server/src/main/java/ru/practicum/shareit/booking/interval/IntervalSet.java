@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.interval;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Периоды бронирований одной вещи, упорядоченные по началу.
+ * Поиск пересечений с [from, to) просматривает только периоды, начинающиеся в
+ * [from - самый длинный период, to), поэтому стоит O(log n + k).
+ * Не потокобезопасен: вызывающий код синхронизируется на экземпляре.
+ */
+public class IntervalSet {
+
+    private static final Comparator<BookingInterval> BY_START = Comparator
+            .comparing(BookingInterval::start)
+            .thenComparing(BookingInterval::bookingId);
+
+    private final NavigableSet<BookingInterval> intervals = new TreeSet<>(BY_START);
+    private final Map<Long, BookingInterval> byBookingId = new HashMap<>();
+    private Duration longest = Duration.ZERO;
+
+    public void add(BookingInterval interval) {
+        remove(interval.bookingId());
+        intervals.add(interval);
+        byBookingId.put(interval.bookingId(), interval);
+        Duration length = Duration.between(interval.start(), interval.end());
+        if (length.compareTo(longest) > 0) {
+            longest = length;
+        }
+    }
+
+    public void remove(Long bookingId) {
+        BookingInterval interval = byBookingId.remove(bookingId);
+        if (interval != null) {
+            intervals.remove(interval);
+        }
+    }
+
+    public boolean overlapsAny(LocalDateTime from, LocalDateTime to) {
+        return candidates(from, to).stream()
+                .anyMatch(interval -> interval.overlaps(from, to));
+    }
+
+    public List<BookingInterval> overlapping(LocalDateTime from, LocalDateTime to) {
+        return candidates(from, to).stream()
+                .filter(interval -> interval.overlaps(from, to))
+                .toList();
+    }
+
+    public boolean isEmpty() {
+        return intervals.isEmpty();
+    }
+
+    private NavigableSet<BookingInterval> candidates(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to) || intervals.isEmpty()) {
+            return new TreeSet<>(BY_START);
+        }
+        BookingInterval lower = new BookingInterval(Long.MIN_VALUE, from.minus(longest), from);
+        BookingInterval upper = new BookingInterval(Long.MIN_VALUE, to, to);
+        return intervals.subSet(lower, true, upper, false);
+    }
+}
@@ -1,70 +1,190 @@
 package ru.practicum.shareit.booking.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.counts.BookingStateCounts;
+import ru.practicum.shareit.booking.dto.BookingView;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    /*
+     * Списки бронирований отдаются страницами с keyset-пагинацией по (start desc, id desc):
+     * ?2 и ?3 - start и id последнего бронирования предыдущей страницы (см. BookingCursor),
+     * поэтому глубина страницы не влияет на стоимость запроса.
+     */
+    String AFTER_CURSOR = "and b.start <= ?2 and (b.start < ?2 or b.id < ?3) ";
+
+    String ORDER_BY_START_DESC = "order by b.start desc, b.id desc";
+
+    // Строки списка сразу с названием вещи и именем арендатора - без ленивой загрузки связей
+    String SELECT_VIEW = "select new ru.practicum.shareit.booking.dto.BookingView(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, u.id, u.name) " +
+            "from Booking b join b.item i join b.booker u ";
+
+    /*
+     * Количество бронирований во всех состояниях фильтра одним агрегирующим запросом:
+     * условия те же, что у списков, ?2 - текущий момент. Последние два поля - ближайшие
+     * начало и окончание бронирования, после которых счётчики CURRENT/PAST/FUTURE меняются.
+     */
+    String COUNT_BY_STATE = "select new ru.practicum.shareit.booking.counts.BookingStateCounts(" +
+            "count(b), " +
+            "coalesce(sum(case when b.start < ?2 and b.end > ?2 then 1 else 0 end), 0L), " +
+            "coalesce(sum(case when b.end < ?2 then 1 else 0 end), 0L), " +
+            "coalesce(sum(case when b.start > ?2 then 1 else 0 end), 0L), " +
+            "coalesce(sum(case when b.status = 'WAITING' then 1 else 0 end), 0L), " +
+            "coalesce(sum(case when b.status = 'REJECTED' then 1 else 0 end), 0L), " +
+            "min(case when b.start >= ?2 then b.start end), " +
+            "min(case when b.end >= ?2 then b.end end)) " +
+            "from Booking b ";
+
+    // Сколько строк выгрузки драйвер забирает из курсора за раз
+    String EXPORT_FETCH_SIZE = "500";
+
+    // ETag бронирования - версии бронирования и вещи (её название входит в ответ),
+    // если бронирование видно пользователю как арендатору или владельцу вещи
+    @Query("select cast(b.version as String) || '.' || cast(i.version as String) " +
+            "from Booking b join b.item i " +
+            "where b.id = ?1 and (b.booker.id = ?2 or i.owner.id = ?2)")
+    Optional<String> findVersionTag(Long bookingId, Long userId);
+
+    // Дата начала бронирования для построения курсора страницы - только из того списка,
+    // который листается: бронирования арендатора ?2 или бронирования вещей владельца ?2
+    @Query("select b.start from Booking b where b.id = ?1 and b.booker.id = ?2")
+    Optional<LocalDateTime> findStartByIdAndBookerId(Long bookingId, Long bookerId);
+
+    @Query("select b.start from Booking b where b.id = ?1 and b.item.owner.id = ?2")
+    Optional<LocalDateTime> findStartByIdAndItemOwnerId(Long bookingId, Long ownerId);
+
     // Все бронирования пользователя (как арендатора)
-    List<Booking> findByBookerId(Long bookerId, Sort sort);
+    @Query(SELECT_VIEW +
+            "where u.id = ?1 " +
+            AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findByBookerId(Long bookerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
 
     // Текущие бронирования пользователя
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfter(
-            Long bookerId,
-            LocalDateTime start,
-            LocalDateTime end,
-            Sort sort
-    );
+    @Query(SELECT_VIEW +
+            "where u.id = ?1 " +
+            AFTER_CURSOR +
+            "and b.start < ?4 " +
+            "and b.end > ?4 " +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findCurrentBookingsByBookerId(Long bookerId, LocalDateTime cursorStart, Long cursorId,
+                                                     LocalDateTime now, Pageable pageable);
 
     // Прошедшие бронирования пользователя
-    List<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime end, Sort sort);
+    @Query(SELECT_VIEW +
+            "where u.id = ?1 " +
+            AFTER_CURSOR +
+            "and b.end < ?4 " +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findPastBookingsByBookerId(Long bookerId, LocalDateTime cursorStart, Long cursorId,
+                                                  LocalDateTime now, Pageable pageable);
 
     // Будущие бронирования пользователя
-    List<Booking> findByBookerIdAndStartAfter(Long bookerId, LocalDateTime start, Sort sort);
+    @Query(SELECT_VIEW +
+            "where u.id = ?1 " +
+            AFTER_CURSOR +
+            "and b.start > ?4 " +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findFutureBookingsByBookerId(Long bookerId, LocalDateTime cursorStart, Long cursorId,
+                                                    LocalDateTime now, Pageable pageable);
 
     // Бронирования пользователя по статусу
-    List<Booking> findByBookerIdAndStatus(Long bookerId, Status status, Sort sort);
+    @Query(SELECT_VIEW +
+            "where u.id = ?1 " +
+            AFTER_CURSOR +
+            "and b.status = ?4 " +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findByBookerIdAndStatus(Long bookerId, LocalDateTime cursorStart, Long cursorId,
+                                               Status status, Pageable pageable);
+
+    // Счётчики бронирований пользователя по состояниям
+    @Query(COUNT_BY_STATE +
+            "where b.booker.id = ?1")
+    BookingStateCounts countByBookerId(Long bookerId, LocalDateTime now);
+
+    // Счётчики бронирований вещей владельца по состояниям
+    @Query(COUNT_BY_STATE +
+            "join b.item i " +
+            "where i.owner.id = ?1")
+    BookingStateCounts countByItemOwnerId(Long ownerId, LocalDateTime now);
 
     // Все бронирования для вещей владельца
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "order by b.start desc")
-    List<Booking> findByItemOwnerId(Long ownerId);
+    @Query(SELECT_VIEW +
+            "where i.owner.id = ?1 " +
+            AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findByItemOwnerId(Long ownerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    // Вся история бронирований владельца для выгрузки - читается курсором, а не списком
+    @Query(SELECT_VIEW +
+            "where i.owner.id = ?1 " +
+            ORDER_BY_START_DESC)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<BookingView> streamByItemOwnerId(Long ownerId);
 
     // Текущие бронирования для вещей владельца
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "and b.start < ?2 " +
-            "and b.end > ?2 " +
-            "order by b.start desc")
-    List<Booking> findCurrentBookingsByItemOwnerId(Long ownerId, LocalDateTime now);
+    @Query(SELECT_VIEW +
+            "where i.owner.id = ?1 " +
+            AFTER_CURSOR +
+            "and b.start < ?4 " +
+            "and b.end > ?4 " +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findCurrentBookingsByItemOwnerId(Long ownerId, LocalDateTime cursorStart, Long cursorId,
+                                                        LocalDateTime now, Pageable pageable);
 
     // Прошедшие бронирования для вещей владельца
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "and b.end < ?2 " +
-            "order by b.start desc")
-    List<Booking> findPastBookingsByItemOwnerId(Long ownerId, LocalDateTime now);
+    @Query(SELECT_VIEW +
+            "where i.owner.id = ?1 " +
+            AFTER_CURSOR +
+            "and b.end < ?4 " +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findPastBookingsByItemOwnerId(Long ownerId, LocalDateTime cursorStart, Long cursorId,
+                                                     LocalDateTime now, Pageable pageable);
 
     // Будущие бронирования для вещей владельца
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "and b.start > ?2 " +
-            "order by b.start desc")
-    List<Booking> findFutureBookingsByItemOwnerId(Long ownerId, LocalDateTime now);
+    @Query(SELECT_VIEW +
+            "where i.owner.id = ?1 " +
+            AFTER_CURSOR +
+            "and b.start > ?4 " +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findFutureBookingsByItemOwnerId(Long ownerId, LocalDateTime cursorStart, Long cursorId,
+                                                       LocalDateTime now, Pageable pageable);
 
     // Бронирования для вещей владельца по статусу
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "and b.status = ?2 " +
-            "order by b.start desc")
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, Status status);
+    @Query(SELECT_VIEW +
+            "where i.owner.id = ?1 " +
+            AFTER_CURSOR +
+            "and b.status = ?4 " +
+            ORDER_BY_START_DESC)
+    Slice<BookingView> findByItemOwnerIdAndStatus(Long ownerId, LocalDateTime cursorStart, Long cursorId,
+                                                  Status status, Pageable pageable);
+
+    // Бронирования в заданных статусах (для построения индексов в памяти)
+    List<Booking> findByStatusIn(Collection<Status> statuses);
+
+    // Подтверждённые бронирования пользователя - удаляются вместе с ним каскадом в базе
+    @Query("select b from Booking b where b.booker.id = ?1 and b.status = 'APPROVED'")
+    List<Booking> findApprovedByBookerId(Long bookerId);
+
+    // Подтверждённые бронирования вещей владельца - удаляются вместе с ним каскадом в базе
+    @Query("select b from Booking b join b.item i where i.owner.id = ?1 and b.status = 'APPROVED'")
+    List<Booking> findApprovedByItemOwnerId(Long ownerId);
 
     // Бронирования для конкретной вещи
     List<Booking> findByItemId(Long itemId, Sort sort);
@@ -87,6 +207,25 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "limit 1")
     Booking findNextBookingForItem(Long itemId, LocalDateTime now);
 
+    // Последнее и ближайшее следующее бронирование сразу для набора вещей (одним запросом)
+    @Query(value = "select id, start_date, end_date, item_id, booker_id, status, version from (" +
+            "select b.*, row_number() over (partition by b.item_id order by b.end_date desc, b.id desc) as rn " +
+            "from bookings b " +
+            "where b.item_id in (?1) " +
+            "and b.start_date < ?2 " +
+            "and b.status = 'APPROVED') last_bookings " +
+            "where rn = 1 " +
+            "union all " +
+            "select id, start_date, end_date, item_id, booker_id, status, version from (" +
+            "select b.*, row_number() over (partition by b.item_id order by b.start_date asc, b.id asc) as rn " +
+            "from bookings b " +
+            "where b.item_id in (?1) " +
+            "and b.start_date > ?2 " +
+            "and b.status = 'APPROVED') next_bookings " +
+            "where rn = 1",
+            nativeQuery = true)
+    List<Booking> findLastAndNextBookingsForItems(Collection<Long> itemIds, LocalDateTime now);
+
     // Проверка что пользователь брал вещь в аренду и аренда завершилась
     @Query("select case when count(b) > 0 then true else false end " +
             "from Booking b " +
@@ -2,8 +2,12 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStateCountsDto;
+import ru.practicum.shareit.booking.export.BookingExport;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingService {
 
@@ -13,7 +17,15 @@ public interface BookingService {
 
     BookingDto getBookingById(Long userId, Long bookingId);
 
-    List<BookingDto> getUserBookings(Long userId, BookingState state);
+    Optional<String> getBookingVersionTag(Long userId, Long bookingId);
 
-    List<BookingDto> getOwnerBookings(Long ownerId, BookingState state);
+    List<BookingDto> getUserBookings(Long userId, BookingState state, int from, int size, Long after);
+
+    List<BookingDto> getOwnerBookings(Long ownerId, BookingState state, int from, int size, Long after);
+
+    BookingStateCountsDto getUserBookingCounts(Long userId);
+
+    BookingStateCountsDto getOwnerBookingCounts(Long ownerId);
+
+    BookingExport exportOwnerBookings(Long ownerId, BookingExportFormat format);
 }
\ No newline at end of file
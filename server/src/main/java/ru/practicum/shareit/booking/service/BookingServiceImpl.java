@@ -1,37 +1,61 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.counts.BookingStateCountsCache;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingStateCountsDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.export.BookingExport;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
+import ru.practicum.shareit.booking.export.BookingExporter;
+import ru.practicum.shareit.booking.guard.BookingOverlapGuard;
+import ru.practicum.shareit.booking.interval.ApprovedBookingIndex;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryTracker;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ErrorCode;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Observed(name = "shareit.service")
 public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final BookingOverlapGuard bookingOverlapGuard;
+    private final ApprovedBookingIndex approvedBookingIndex;
+    private final BookingExporter bookingExporter;
+    private final ItemBookingSummaryTracker itemBookingSummaryTracker;
+    private final BookingStateCountsCache bookingStateCountsCache;
+    private final EntityCacheEvictor entityCacheEvictor;
 
     @Override
     @Transactional
@@ -41,25 +65,25 @@ public class BookingServiceImpl implements BookingService {
         // Валидация дат
         if (bookingDto.end().isBefore(bookingDto.start()) ||
                 bookingDto.end().equals(bookingDto.start())) {
-            throw new BadRequestException("End date must be after start date");
+            throw new BadRequestException(ErrorCode.INVALID_BOOKING_PERIOD);
         }
 
         // Проверка пользователя
         User booker = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
 
         // Проверка вещи
         Item item = itemRepository.findById(bookingDto.itemId())
-                .orElseThrow(() -> new NotFoundException("Item with id=" + bookingDto.itemId() + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, bookingDto.itemId()));
 
         // Нельзя забронировать свою вещь
         if (item.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Owner cannot book his own item");
+            throw new NotFoundException(ErrorCode.OWN_ITEM_BOOKING);
         }
 
         // Проверка доступности
         if (!item.getAvailable()) {
-            throw new BadRequestException("Item with id=" + bookingDto.itemId() + " is not available");
+            throw new BadRequestException(ErrorCode.ITEM_NOT_AVAILABLE, bookingDto.itemId());
         }
 
         Booking booking = new Booking();
@@ -69,7 +93,9 @@ public class BookingServiceImpl implements BookingService {
         booking.setBooker(booker);
         booking.setStatus(Status.WAITING);
 
-        booking = bookingRepository.save(booking);
+        // Период не должен пересекаться с ожидающими и подтверждёнными бронированиями вещи
+        booking = bookingOverlapGuard.reserve(booking);
+        entityCacheEvictor.evictBookingCounts(userId, item.getOwner().getId());
         log.info("Booking created with id: {}", booking.getId());
 
         return BookingMapper.toBookingDto(booking);
@@ -81,20 +107,27 @@ public class BookingServiceImpl implements BookingService {
         log.debug("User {} approving booking {}: {}", userId, bookingId, approved);
 
         Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new NotFoundException("Booking with id=" + bookingId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.BOOKING_NOT_FOUND, bookingId));
 
         // Только владелец вещи может подтвердить
         if (!booking.getItem().getOwner().getId().equals(userId)) {
-            throw new ForbiddenException("Only item owner can approve booking");
+            throw new ForbiddenException(ErrorCode.APPROVE_FORBIDDEN);
         }
 
         // Нельзя изменить уже подтверждённое/отклонённое бронирование
         if (!booking.getStatus().equals(Status.WAITING)) {
-            throw new ConflictException("Booking is already " + booking.getStatus());
+            throw new ConflictException(ErrorCode.BOOKING_ALREADY_DECIDED, booking.getStatus());
         }
 
         booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
         booking = bookingRepository.save(booking);
+        if (approved) {
+            approvedBookingIndex.approved(booking);
+            itemBookingSummaryTracker.refresh(booking.getItem().getId());
+        } else {
+            bookingOverlapGuard.release(booking);
+        }
+        entityCacheEvictor.evictBookingCounts(booking.getBooker().getId(), userId);
 
         log.info("Booking {} status changed to {}", bookingId, booking.getStatus());
         return BookingMapper.toBookingDto(booking);
@@ -105,49 +138,63 @@ public class BookingServiceImpl implements BookingService {
         log.debug("Getting booking {} by user {}", bookingId, userId);
 
         Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new NotFoundException("Booking with id=" + bookingId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.BOOKING_NOT_FOUND, bookingId));
 
         // Просмотр доступен только автору бронирования или владельцу вещи
         if (!booking.getBooker().getId().equals(userId) &&
                 !booking.getItem().getOwner().getId().equals(userId)) {
-            throw new NotFoundException("User with id=" + userId + " cannot view this booking");
+            throw new NotFoundException(ErrorCode.BOOKING_NOT_VISIBLE, userId);
         }
 
         return BookingMapper.toBookingDto(booking);
     }
 
+    // Пусто, если бронирования нет или оно не видно пользователю: такой запрос идёт полным путём
+    // и получает ту же ошибку, что и без If-None-Match
+    @Override
+    public Optional<String> getBookingVersionTag(Long userId, Long bookingId) {
+        return bookingRepository.findVersionTag(bookingId, userId);
+    }
+
     @Override
-    public List<BookingDto> getUserBookings(Long userId, BookingState state) {
-        log.debug("Getting bookings for user {} with state {}", userId, state);
+    public List<BookingDto> getUserBookings(Long userId, BookingState state, int from, int size, Long after) {
+        log.debug("Getting bookings for user {} with state {}, from={}, size={}, after={}",
+                userId, state, from, size, after);
+        Pageable page = OffsetPageRequest.of(from, size);
 
         // Проверка существования пользователя
         if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("User with id=" + userId + " not found");
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
         }
 
         LocalDateTime now = LocalDateTime.now();
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        List<Booking> bookings;
+        BookingCursor cursor = resolveCursor(after,
+                bookingId -> bookingRepository.findStartByIdAndBookerId(bookingId, userId));
+        Slice<BookingView> bookings;
 
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findByBookerId(userId, sort);
+                bookings = bookingRepository.findByBookerId(userId, cursor.start(), cursor.id(), page);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(
-                        userId, now, now, sort);
+                bookings = bookingRepository.findCurrentBookingsByBookerId(
+                        userId, cursor.start(), cursor.id(), now, page);
                 break;
             case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndBefore(userId, now, sort);
+                bookings = bookingRepository.findPastBookingsByBookerId(
+                        userId, cursor.start(), cursor.id(), now, page);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartAfter(userId, now, sort);
+                bookings = bookingRepository.findFutureBookingsByBookerId(
+                        userId, cursor.start(), cursor.id(), now, page);
                 break;
             case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatus(userId, Status.WAITING, sort);
+                bookings = bookingRepository.findByBookerIdAndStatus(
+                        userId, cursor.start(), cursor.id(), Status.WAITING, page);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatus(userId, Status.REJECTED, sort);
+                bookings = bookingRepository.findByBookerIdAndStatus(
+                        userId, cursor.start(), cursor.id(), Status.REJECTED, page);
                 break;
             default:
                 throw new IllegalArgumentException("Unknown state: " + state);
@@ -159,35 +206,44 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getOwnerBookings(Long ownerId, BookingState state) {
-        log.debug("Getting bookings for owner {} with state {}", ownerId, state);
+    public List<BookingDto> getOwnerBookings(Long ownerId, BookingState state, int from, int size, Long after) {
+        log.debug("Getting bookings for owner {} with state {}, from={}, size={}, after={}",
+                ownerId, state, from, size, after);
+        Pageable page = OffsetPageRequest.of(from, size);
 
         // Проверка существования пользователя
         if (!userRepository.existsById(ownerId)) {
-            throw new NotFoundException("User with id=" + ownerId + " not found");
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, ownerId);
         }
 
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
+        BookingCursor cursor = resolveCursor(after,
+                bookingId -> bookingRepository.findStartByIdAndItemOwnerId(bookingId, ownerId));
+        Slice<BookingView> bookings;
 
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findByItemOwnerId(ownerId);
+                bookings = bookingRepository.findByItemOwnerId(ownerId, cursor.start(), cursor.id(), page);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findCurrentBookingsByItemOwnerId(ownerId, now);
+                bookings = bookingRepository.findCurrentBookingsByItemOwnerId(
+                        ownerId, cursor.start(), cursor.id(), now, page);
                 break;
             case PAST:
-                bookings = bookingRepository.findPastBookingsByItemOwnerId(ownerId, now);
+                bookings = bookingRepository.findPastBookingsByItemOwnerId(
+                        ownerId, cursor.start(), cursor.id(), now, page);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findFutureBookingsByItemOwnerId(ownerId, now);
+                bookings = bookingRepository.findFutureBookingsByItemOwnerId(
+                        ownerId, cursor.start(), cursor.id(), now, page);
                 break;
             case WAITING:
-                bookings = bookingRepository.findByItemOwnerIdAndStatus(ownerId, Status.WAITING);
+                bookings = bookingRepository.findByItemOwnerIdAndStatus(
+                        ownerId, cursor.start(), cursor.id(), Status.WAITING, page);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findByItemOwnerIdAndStatus(ownerId, Status.REJECTED);
+                bookings = bookingRepository.findByItemOwnerIdAndStatus(
+                        ownerId, cursor.start(), cursor.id(), Status.REJECTED, page);
                 break;
             default:
                 throw new IllegalArgumentException("Unknown state: " + state);
@@ -197,4 +253,53 @@ public class BookingServiceImpl implements BookingService {
                 .map(BookingMapper::toBookingDto)
                 .toList();
     }
+
+    @Override
+    public BookingStateCountsDto getUserBookingCounts(Long userId) {
+        log.debug("Counting bookings by state for user {}", userId);
+
+        // Проверка существования пользователя
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
+        }
+
+        return BookingMapper.toBookingStateCountsDto(bookingStateCountsCache.get(BookingStateCountsCache.Role.BOOKER,
+                userId, id -> bookingRepository.countByBookerId(id, LocalDateTime.now())));
+    }
+
+    @Override
+    public BookingStateCountsDto getOwnerBookingCounts(Long ownerId) {
+        log.debug("Counting bookings by state for owner {}", ownerId);
+
+        // Проверка существования пользователя
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, ownerId);
+        }
+
+        return BookingMapper.toBookingStateCountsDto(bookingStateCountsCache.get(BookingStateCountsCache.Role.OWNER,
+                ownerId, id -> bookingRepository.countByItemOwnerId(id, LocalDateTime.now())));
+    }
+
+    @Override
+    public BookingExport exportOwnerBookings(Long ownerId, BookingExportFormat format) {
+        log.debug("Exporting bookings for owner {} as {}", ownerId, format);
+
+        // Проверка до начала выгрузки: после первых строк статус ответа уже не изменить
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, ownerId);
+        }
+
+        return out -> bookingExporter.write(ownerId, format, out);
+    }
+
+    // Без after страница отсчитывается от начала списка, иначе - сразу после указанного бронирования.
+    // Бронирование ищется только в листаемом списке: чужое не найдётся, как и несуществующее
+    private BookingCursor resolveCursor(Long after, Function<Long, Optional<LocalDateTime>> findStart) {
+        if (after == null) {
+            return BookingCursor.FIRST;
+        }
+        return findStart.apply(after)
+                .map(start -> new BookingCursor(start, after))
+                .orElseThrow(() -> new NotFoundException(ErrorCode.BOOKING_NOT_FOUND, after));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.summary;
+
+import jakarta.persistence.Embeddable;
+import ru.practicum.shareit.booking.Booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Копия полей бронирования, которые нужны в карточке вещи.
+ */
+@Embeddable
+public record BookingSnapshot(
+        Long bookingId,
+        Long bookerId,
+        LocalDateTime start,
+        LocalDateTime end
+) {
+    public static BookingSnapshot of(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new BookingSnapshot(booking.getId(), booking.getBooker().getId(), booking.getStart(), booking.getEnd());
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.summary;
+
+import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Снимок последнего и следующего бронирования вещи (см. ItemBookingSummaryTracker).
+ * Строки нет, пока у вещи не было подтверждённых бронирований.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "item_booking_summary")
+public class ItemBookingSummary {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Embedded
+    @AttributeOverride(name = "bookingId", column = @Column(name = "last_booking_id"))
+    @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id"))
+    @AttributeOverride(name = "start", column = @Column(name = "last_start"))
+    @AttributeOverride(name = "end", column = @Column(name = "last_end"))
+    private BookingSnapshot last;
+
+    @Embedded
+    @AttributeOverride(name = "bookingId", column = @Column(name = "next_booking_id"))
+    @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id"))
+    @AttributeOverride(name = "start", column = @Column(name = "next_start"))
+    @AttributeOverride(name = "end", column = @Column(name = "next_end"))
+    private BookingSnapshot next;
+
+    // Когда снимок перестаёт быть верным; null - следующего бронирования нет
+    @Column(name = "refresh_at")
+    private LocalDateTime refreshAt;
+
+    public ItemBookingSummary(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public boolean isFreshAt(LocalDateTime now) {
+        return refreshAt == null || refreshAt.isAfter(now);
+    }
+
+    public LastAndNextBookings toLastAndNext() {
+        return new LastAndNextBookings(last, next);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.summary;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Фоновый обход снимков бронирований (ItemBookingSummaryTracker#sweep).
+ * Отключается shareit.booking-summary.sweep-enabled=false - например, в тестах,
+ * где обход вмешивался бы в подсчёт запросов.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "shareit.booking-summary.sweep-enabled", havingValue = "true", matchIfMissing = true)
+public class ItemBookingSummaryConfig {
+}
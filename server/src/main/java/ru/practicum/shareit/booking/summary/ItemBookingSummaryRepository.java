@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking.summary;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    // Снимок с блокировкой строки: параллельные подтверждения по одной вещи пересчитывают его по очереди
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary s where s.itemId = ?1")
+    Optional<ItemBookingSummary> findForUpdate(Long itemId);
+
+    // Блокировка строки вещи, пока её снимка ещё нет: блокировать нечего, а первые подтверждения
+    // по вещи иначе вставили бы снимок одновременно и одно упало бы на первичном ключе
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> lockItem(Long itemId);
+
+    // Снимки всех вещей владельца
+    @Query("select s from ItemBookingSummary s join Item i on i.id = s.itemId where i.owner.id = ?1")
+    List<ItemBookingSummary> findByItemOwnerId(Long ownerId);
+
+    // Вещи, у которых к моменту ?1 началось следующее бронирование, - в порядке устаревания
+    @Query("select s.itemId from ItemBookingSummary s where s.refreshAt <= ?1 order by s.refreshAt")
+    List<Long> findItemIdsToRefresh(LocalDateTime now, Pageable pageable);
+
+    // Снимки со ссылками на бронирования пользователя помечаются устаревшими
+    @Modifying
+    @Query("update ItemBookingSummary s set s.refreshAt = ?2 where s.last.bookerId = ?1 or s.next.bookerId = ?1")
+    int markStaleByBookerId(Long bookerId, LocalDateTime refreshAt);
+}
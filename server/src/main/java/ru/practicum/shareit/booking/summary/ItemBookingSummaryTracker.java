@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Поддерживает снимки последнего и следующего бронирования вещей (таблица item_booking_summary).
+ * Снимок пересчитывается в транзакции подтверждения бронирования, а когда следующее бронирование
+ * начинается и становится последним - фоновым обходом по refresh_at.
+ * Пока обход не дошёл до вещи, её снимок считается устаревшим и чтение вычисляет бронирования
+ * по таблице bookings, так что ответ не зависит от периода обхода.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryTracker {
+
+    // Сколько устаревших снимков пересчитывается за один проход обхода
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+
+    // Вызывается в транзакции, изменившей подтверждённые бронирования вещи
+    public void refresh(Long itemId) {
+        refresh(itemId, LocalDateTime.now());
+    }
+
+    // Снимки вещей, где встречается арендатор, перед удалением его бронирований
+    public void bookerDeleted(Long bookerId) {
+        int stale = summaryRepository.markStaleByBookerId(bookerId, LocalDateTime.now());
+        log.debug("Marked {} item booking summaries stale after deleting booker {}", stale, bookerId);
+    }
+
+    public LastAndNextBookings get(Long itemId, LocalDateTime now) {
+        return summaryRepository.findById(itemId)
+                .map(summary -> summary.isFreshAt(now)
+                        ? summary.toLastAndNext()
+                        : new LastAndNextBookings(
+                        BookingSnapshot.of(bookingRepository.findLastBookingForItem(itemId, now)),
+                        BookingSnapshot.of(bookingRepository.findNextBookingForItem(itemId, now))))
+                .orElse(LastAndNextBookings.NONE);
+    }
+
+    // Бронирования всех вещей владельца; вещей без подтверждённых бронирований в ответе нет
+    public Map<Long, LastAndNextBookings> getForOwner(Long ownerId, LocalDateTime now) {
+        Map<Long, LastAndNextBookings> result = new HashMap<>();
+        List<Long> stale = new ArrayList<>();
+        for (ItemBookingSummary summary : summaryRepository.findByItemOwnerId(ownerId)) {
+            if (summary.isFreshAt(now)) {
+                result.put(summary.getItemId(), summary.toLastAndNext());
+            } else {
+                stale.add(summary.getItemId());
+            }
+        }
+        if (!stale.isEmpty()) {
+            result.putAll(compute(stale, now));
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.sweep-interval}")
+    @Transactional
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = summaryRepository.findItemIdsToRefresh(now, PageRequest.of(0, SWEEP_BATCH_SIZE));
+        for (Long itemId : itemIds) {
+            refresh(itemId, now);
+        }
+        if (!itemIds.isEmpty()) {
+            log.debug("Refreshed {} item booking summaries", itemIds.size());
+        }
+    }
+
+    private void refresh(Long itemId, LocalDateTime now) {
+        ItemBookingSummary summary = summaryRepository.findForUpdate(itemId)
+                .orElseGet(() -> createLocked(itemId));
+        Booking last = bookingRepository.findLastBookingForItem(itemId, now);
+        Booking next = bookingRepository.findNextBookingForItem(itemId, now);
+        summary.setLast(BookingSnapshot.of(last));
+        summary.setNext(BookingSnapshot.of(next));
+        summary.setRefreshAt(next != null ? next.getStart() : null);
+        summaryRepository.save(summary);
+    }
+
+    // Первый снимок вещи создаётся под блокировкой её строки; дождавшийся блокировки
+    // перечитывает снимок - его могла вставить транзакция, державшая блокировку
+    private ItemBookingSummary createLocked(Long itemId) {
+        summaryRepository.lockItem(itemId);
+        return summaryRepository.findForUpdate(itemId)
+                .orElseGet(() -> new ItemBookingSummary(itemId));
+    }
+
+    private Map<Long, LastAndNextBookings> compute(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, BookingSnapshot> last = new HashMap<>();
+        Map<Long, BookingSnapshot> next = new HashMap<>();
+        for (Booking booking : bookingRepository.findLastAndNextBookingsForItems(itemIds, now)) {
+            if (booking.getStart().isBefore(now)) {
+                last.put(booking.getItem().getId(), BookingSnapshot.of(booking));
+            } else {
+                next.put(booking.getItem().getId(), BookingSnapshot.of(booking));
+            }
+        }
+        Map<Long, LastAndNextBookings> result = new HashMap<>();
+        for (Long itemId : itemIds) {
+            result.put(itemId, new LastAndNextBookings(last.get(itemId), next.get(itemId)));
+        }
+        return result;
+    }
+}
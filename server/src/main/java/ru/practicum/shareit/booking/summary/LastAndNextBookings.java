@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.summary;
+
+/**
+ * Последнее и ближайшее следующее подтверждённое бронирование вещи.
+ */
+public record LastAndNextBookings(BookingSnapshot last, BookingSnapshot next) {
+
+    public static final LastAndNextBookings NONE = new LastAndNextBookings(null, null);
+}
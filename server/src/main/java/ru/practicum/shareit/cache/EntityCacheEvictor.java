@@ -0,0 +1,74 @@
+package ru.practicum.shareit.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.counts.BookingStateCountsCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+/**
+ * Явное удаление записей из кэша второго уровня после изменения данных.
+ * Удаление выполняется по завершении транзакции, чтобы параллельное чтение
+ * не вернуло в кэш ещё не зафиксированное старое состояние.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final BookingStateCountsCache bookingStateCountsCache;
+
+    public void evictUser(Long userId) {
+        afterCompletion(() -> cache().evictEntityData(User.class, userId));
+    }
+
+    // Вещи пользователя удаляются каскадом в базе, мимо Hibernate, поэтому регион вещей
+    // и закэшированные проверки существования очищаются целиком
+    public void evictDeletedUser(Long userId) {
+        afterCompletion(() -> {
+            Cache cache = cache();
+            cache.evictEntityData(User.class, userId);
+            cache.evictEntityData(Item.class);
+            cache.evictDefaultQueryRegion();
+            // Вместе с пользователем удалены и бронирования его вещей у других арендаторов
+            bookingStateCountsCache.evictAll();
+        });
+    }
+
+    public void evictItem(Long itemId) {
+        afterCompletion(() -> cache().evictEntityData(Item.class, itemId));
+    }
+
+    // Счётчики удаляются и сразу - чтобы чтение в той же транзакции видело новое бронирование,
+    // и после завершения - чтобы не остался посчитанный параллельно до фиксации
+    public void evictBookingCounts(Long bookerId, Long ownerId) {
+        Runnable eviction = () -> {
+            bookingStateCountsCache.evict(BookingStateCountsCache.Role.BOOKER, bookerId);
+            bookingStateCountsCache.evict(BookingStateCountsCache.Role.OWNER, ownerId);
+        };
+        eviction.run();
+        afterCompletion(eviction);
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    private static void afterCompletion(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                eviction.run();
+            }
+        });
+    }
+}
@@ -1,8 +1,8 @@
 package ru.practicum.shareit.exception;
 
-public class BadRequestException extends RuntimeException {
+public class BadRequestException extends ShareItException {
 
-    public BadRequestException(String message) {
-        super(message);
+    public BadRequestException(ErrorCode errorCode, Object... args) {
+        super(errorCode, args);
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,8 @@
 package ru.practicum.shareit.exception;
 
-public class ConflictException extends RuntimeException {
+public class ConflictException extends ShareItException {
 
-    public ConflictException(String message) {
-        super(message);
+    public ConflictException(ErrorCode errorCode, Object... args) {
+        super(errorCode, args);
     }
-}
\ No newline at end of file
+}
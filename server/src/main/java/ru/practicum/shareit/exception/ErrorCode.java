@@ -0,0 +1,61 @@
+package ru.practicum.shareit.exception;
+
+import org.slf4j.helpers.MessageFormatter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Ожидаемые ошибки клиента: HTTP-статус и шаблон сообщения с параметрами {}.
+ * Сообщение собирается только при отдаче ответа или записи в лог, а ответ для кода
+ * без параметров создаётся один раз и переиспользуется.
+ */
+public enum ErrorCode {
+
+    USER_NOT_FOUND(HttpStatus.NOT_FOUND, "User with id={} not found"),
+    ITEM_NOT_FOUND(HttpStatus.NOT_FOUND, "Item with id={} not found"),
+    BOOKING_NOT_FOUND(HttpStatus.NOT_FOUND, "Booking with id={} not found"),
+    REQUEST_NOT_FOUND(HttpStatus.NOT_FOUND, "Request with id={} not found"),
+    OWN_ITEM_BOOKING(HttpStatus.NOT_FOUND, "Owner cannot book his own item"),
+    BOOKING_NOT_VISIBLE(HttpStatus.NOT_FOUND, "User with id={} cannot view this booking"),
+    NOT_ITEM_OWNER(HttpStatus.NOT_FOUND, "User with id={} is not the owner of the item"),
+    INVALID_BOOKING_PERIOD(HttpStatus.BAD_REQUEST, "End date must be after start date"),
+    INVALID_PERIOD(HttpStatus.BAD_REQUEST, "Period end must be after period start"),
+    INVALID_PAGE(HttpStatus.BAD_REQUEST, "Invalid page: from={} must not be negative, size={} must be positive"),
+    ITEM_NOT_AVAILABLE(HttpStatus.BAD_REQUEST, "Item with id={} is not available"),
+    COMMENT_WITHOUT_BOOKING(HttpStatus.BAD_REQUEST,
+            "User with id={} cannot comment item with id={} without completed booking"),
+    APPROVE_FORBIDDEN(HttpStatus.FORBIDDEN, "Only item owner can approve booking"),
+    BOOKING_ALREADY_DECIDED(HttpStatus.CONFLICT, "Booking is already {}"),
+    BOOKING_OVERLAP(HttpStatus.CONFLICT, "Item with id={} is already booked for this period"),
+    EMAIL_TAKEN(HttpStatus.CONFLICT, "User with email={} already exists");
+
+    private final HttpStatus status;
+    private final String messagePattern;
+    private final ErrorResponse response;
+
+    ErrorCode(HttpStatus status, String messagePattern) {
+        this.status = status;
+        this.messagePattern = messagePattern;
+        this.response = new ErrorResponse(title(status), messagePattern);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String format(Object... args) {
+        return args.length == 0 ? messagePattern : MessageFormatter.basicArrayFormat(messagePattern, args);
+    }
+
+    public ErrorResponse toErrorResponse(Object... args) {
+        return args.length == 0 ? response : new ErrorResponse(response.error(), format(args));
+    }
+
+    private static String title(HttpStatus status) {
+        return switch (status) {
+            case NOT_FOUND -> "Not found";
+            case FORBIDDEN -> "Forbidden";
+            case CONFLICT -> "Conflict";
+            default -> "Bad request";
+        };
+    }
+}
@@ -1,70 +1,100 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.Locale;
+
+/**
+ * Ожидаемые ошибки клиента (4xx) пишутся одной строкой без стека: 404 и 400 - на уровне DEBUG,
+ * отказ в доступе и конфликт - на INFO. Стек пишется только для непредвиденных ошибок (500).
+ */
 @Slf4j
 @RestControllerAdvice
 public class ErrorHandler {
 
+    private static final String EMAIL_CONSTRAINT = "uq_user_email";
+
+    // Статус и тело ответа задаёт код ошибки; сообщение собирается один раз - для ответа и для лога
     @ExceptionHandler
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    public ErrorResponse handleNotFoundException(final NotFoundException e) {
-        log.error("Not found error: {}", e.getMessage());
-        return new ErrorResponse("Not found", e.getMessage());
+    public ResponseEntity<ErrorResponse> handleShareItException(final ShareItException e) {
+        ErrorResponse response = e.toErrorResponse();
+        HttpStatus status = e.getErrorCode().getStatus();
+        if (status == HttpStatus.NOT_FOUND || status == HttpStatus.BAD_REQUEST) {
+            log.debug("{}: {}", e.getErrorCode(), response.description());
+        } else {
+            log.info("{}: {}", e.getErrorCode(), response.description());
+        }
+        return ResponseEntity.status(status).body(response);
     }
 
+    // Клиент может вызвать только гонку двух запросов с одним email: оба прошли проверку в сервисе,
+    // а уникальное ограничение пропустило один. Прочие нарушения целостности - ошибки сервера
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(
+            final DataIntegrityViolationException e) {
+        if (isEmailTaken(e)) {
+            log.info("Email taken concurrently: {}", e.getMostSpecificCause().getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("Conflict", "User with this email already exists"));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(handleThrowable(e));
+    }
+
+    // Строку с @Version изменили между чтением и записью: повтор запроса увидит новое состояние
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
-    public ErrorResponse handleConflictException(final ConflictException e) {
-        log.error("Conflict error: {}", e.getMessage());
-        return new ErrorResponse("Conflict", e.getMessage());
+    public ErrorResponse handleOptimisticLockingFailureException(final OptimisticLockingFailureException e) {
+        log.info("Concurrent modification: {}", e.getMessage());
+        return new ErrorResponse("Conflict", "The data was modified concurrently, retry the request");
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMethodArgumentNotValidException(final MethodArgumentNotValidException e) {
-        log.error("Validation error: {}", e.getMessage());
+        log.debug("Validation error: {}", e.getMessage());
         return new ErrorResponse("Validation failed", e.getBindingResult().getAllErrors().get(0).getDefaultMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMissingRequestHeaderException(final MissingRequestHeaderException e) {
-        log.error("Missing header error: {}", e.getMessage());
+        log.debug("Missing header error: {}", e.getMessage());
         return new ErrorResponse("Missing header", e.getMessage());
     }
 
-    @ExceptionHandler
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleBadRequestException(final BadRequestException e) {
-        log.error("Bad request error: {}", e.getMessage());
-        return new ErrorResponse("Bad request", e.getMessage());
-    }
-
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleIllegalArgumentException(final IllegalArgumentException e) {
-        log.error("Illegal argument error: {}", e.getMessage());
+        log.debug("Illegal argument error: {}", e.getMessage());
         return new ErrorResponse("Unknown state: UNSUPPORTED_STATUS", e.getMessage());
     }
 
-    @ExceptionHandler
-    @ResponseStatus(HttpStatus.FORBIDDEN)
-    public ErrorResponse handleForbiddenException(final ForbiddenException e) {
-        log.error("Forbidden error: {}", e.getMessage());
-        return new ErrorResponse("Forbidden", e.getMessage());
-    }
-
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(final Throwable e) {
         log.error("Internal server error: {}", e.getMessage(), e);
         return new ErrorResponse("Internal server error", e.getMessage());
     }
+
+    // Имя ограничения у H2 - PUBLIC.UQ_USER_EMAIL_INDEX_4, у PostgreSQL - uq_user_email
+    static boolean isEmailTaken(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
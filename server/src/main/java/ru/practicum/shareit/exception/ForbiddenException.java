@@ -1,8 +1,8 @@
 package ru.practicum.shareit.exception;
 
-public class ForbiddenException extends RuntimeException {
+public class ForbiddenException extends ShareItException {
 
-    public ForbiddenException(String message) {
-        super(message);
+    public ForbiddenException(ErrorCode errorCode, Object... args) {
+        super(errorCode, args);
     }
 }
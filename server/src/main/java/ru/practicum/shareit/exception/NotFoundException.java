@@ -1,8 +1,8 @@
 package ru.practicum.shareit.exception;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends ShareItException {
 
-    public NotFoundException(String message) {
-        super(message);
+    public NotFoundException(ErrorCode errorCode, Object... args) {
+        super(errorCode, args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.exception;
+
+/**
+ * Ожидаемая ошибка клиента (4xx). Бросается на обычных путях проверки, поэтому стек
+ * не заполняется, а сообщение собирается из кода и параметров только при обращении к нему.
+ */
+public abstract class ShareItException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+    private final transient Object[] args;
+
+    protected ShareItException(ErrorCode errorCode, Object... args) {
+        super(null, null, false, false);
+        this.errorCode = errorCode;
+        this.args = args;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    @Override
+    public String getMessage() {
+        return errorCode.format(args);
+    }
+
+    public ErrorResponse toErrorResponse() {
+        return errorCode.toErrorResponse(args);
+    }
+}
@@ -1,13 +1,20 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Контроллер для работы с вещами (Server модуль).
@@ -34,6 +41,23 @@ public class ItemController {
         return itemService.addItem(userId, itemDto);
     }
 
+    /**
+     * Массово добавить вещи владельца.
+     * POST /items/bulk
+     *
+     * Gateway читает входной поток, валидирует строки и пересылает корректные пачками;
+     * вставки выполняются JDBC-пакетами в одной транзакции на пачку.
+     *
+     * @param userId ID владельца из заголовка X-Sharer-User-Id
+     * @param rows   строки импорта с номерами во входном потоке
+     * @return результат по каждой строке: id созданной вещи или причина отказа
+     */
+    @PostMapping("/bulk")
+    public List<ItemImportResultDto> importItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @RequestBody List<ItemImportRowDto> rows) {
+        return itemService.importItems(userId, rows);
+    }
+
     /**
      * Обновить данные вещи.
      * PATCH /items/{itemId}
@@ -57,13 +81,22 @@ public class ItemController {
      * Если запрашивает владелец - возвращаются даты бронирований.
      * Если запрашивает не владелец - бронирования не показываются.
      *
-     * @param itemId ID вещи
-     * @param userId ID пользователя (может быть null)
+     * Ответ не владельцу содержит ETag по версии вещи; условный запрос с совпадающим
+     * If-None-Match получает 304 Not Modified без чтения комментариев.
+     *
+     * @param itemId  ID вещи
+     * @param userId  ID пользователя (может быть null)
+     * @param request запрос с заголовком If-None-Match
      * @return данные вещи с комментариями и бронированиями (для владельца)
      */
     @GetMapping("/{itemId}")
     public ItemWithBookingsDto getItemById(@PathVariable Long itemId,
-                                           @RequestHeader(value = "X-Sharer-User-Id", required = false) Long userId) {
+                                           @RequestHeader(value = "X-Sharer-User-Id", required = false) Long userId,
+                                           WebRequest request) {
+        Optional<String> etag = itemService.getItemVersionTag(itemId, userId);
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return null;
+        }
         return itemService.getItemById(itemId, userId);
     }
 
@@ -83,17 +116,42 @@ public class ItemController {
 
     /**
      * Поиск вещей по тексту.
-     * GET /items/search?text={text}
+     * GET /items/search?text={text}&from={from}&size={size}
      *
      * Ищет текст в названии или описании вещи.
-     * Возвращает только доступные для аренды вещи.
+     * Возвращает только доступные для аренды вещи, более релевантные - первыми.
      *
      * @param text текст для поиска
-     * @return список найденных вещей
+     * @param from индекс первого результата
+     * @param size количество результатов на странице
+     * @return страница найденных вещей
      */
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam String text) {
-        return itemService.searchItems(text);
+    public List<ItemDto> searchItems(@RequestParam String text,
+                                     @RequestParam(defaultValue = "0") Integer from,
+                                     @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.searchItems(text, from, size);
+    }
+
+    /**
+     * Календарь доступности вещи.
+     * GET /items/{itemId}/availability?from={from}&to={to}
+     *
+     * Занятые периоды - подтверждённые бронирования, пересекающиеся с [from, to);
+     * свободные - промежутки между ними внутри [from, to).
+     *
+     * @param itemId ID вещи
+     * @param from   начало интересующего периода
+     * @param to     конец интересующего периода
+     * @return свободные и занятые периоды вещи
+     */
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
     }
 
     /**
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Строка массового импорта: номер строки во входном потоке и данные вещи.
+ */
+public record ItemImportRowDto(
+        int row,
+        ItemDto item
+) {
+}
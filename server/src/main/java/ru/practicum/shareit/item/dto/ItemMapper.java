@@ -1,6 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
-import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.summary.BookingSnapshot;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import lombok.experimental.UtilityClass;
@@ -51,28 +51,15 @@ public class ItemMapper {
 
     public static ItemWithBookingsDto toItemWithBookingsDto(
             Item item,
-            Booking lastBooking,
-            Booking nextBooking,
+            BookingSnapshot lastBooking,
+            BookingSnapshot nextBooking,
             List<Comment> comments) {
         if (item == null) {
             return null;
         }
 
-        ItemWithBookingsDto.BookingShortDto lastBookingDto = lastBooking != null
-                ? new ItemWithBookingsDto.BookingShortDto(
-                lastBooking.getId(),
-                lastBooking.getBooker().getId(),
-                lastBooking.getStart(),
-                lastBooking.getEnd())
-                : null;
-
-        ItemWithBookingsDto.BookingShortDto nextBookingDto = nextBooking != null
-                ? new ItemWithBookingsDto.BookingShortDto(
-                nextBooking.getId(),
-                nextBooking.getBooker().getId(),
-                nextBooking.getStart(),
-                nextBooking.getEnd())
-                : null;
+        ItemWithBookingsDto.BookingShortDto lastBookingDto = toBookingShortDto(lastBooking);
+        ItemWithBookingsDto.BookingShortDto nextBookingDto = toBookingShortDto(nextBooking);
 
         List<ItemWithBookingsDto.CommentDto> commentDtos = comments != null
                 ? comments.stream()
@@ -95,6 +82,17 @@ public class ItemMapper {
         );
     }
 
+    private static ItemWithBookingsDto.BookingShortDto toBookingShortDto(BookingSnapshot booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new ItemWithBookingsDto.BookingShortDto(
+                booking.bookingId(),
+                booking.bookerId(),
+                booking.start(),
+                booking.end());
+    }
+
     public static CommentDto toCommentDto(Comment comment) {
         if (comment == null) {
             return null;
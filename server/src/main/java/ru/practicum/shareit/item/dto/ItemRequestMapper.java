@@ -1,7 +1,7 @@
 package ru.practicum.shareit.request.dto;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.request.ItemRequest;
 
 import java.util.List;
@@ -10,7 +10,7 @@ import java.util.stream.Collectors;
 @UtilityClass
 public class ItemRequestMapper {
 
-    public static ItemRequestDto toItemRequestDto(ItemRequest request, List<Item> items) {
+    public static ItemRequestDto toItemRequestDto(ItemRequest request, List<ItemShortDto> items) {
         if (request == null) {
             return null;
         }
@@ -23,9 +23,9 @@ public class ItemRequestMapper {
         List<ItemRequestDto.ItemDto> itemDtos = items != null
                 ? items.stream()
                 .map(item -> new ItemRequestDto.ItemDto(
-                        item.getId(),
-                        item.getName(),
-                        item.getOwner().getId()))
+                        item.id(),
+                        item.name(),
+                        item.ownerId()))
                 .collect(Collectors.toList())
                 : List.of();
 
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Краткие данные вещи, созданной в ответ на запрос.
+ * Заполняется проекцией напрямую из запроса, без загрузки сущностей Item и User.
+ */
+public record ItemShortDto(
+        Long id,
+        String name,
+        Long ownerId,
+        Long requestId
+) {
+}
@@ -1,21 +1,39 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    // Проверка существования для валидации запросов - результат берётся из кэша запросов
+    @Override
+    @Query("select count(i) > 0 from Item i where i.id = ?1")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    boolean existsById(Long id);
+
     List<Item> findByOwnerId(Long ownerId);
 
-    @Query("select i from Item i " +
-            "where i.available = true " +
-            "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%')))")
-    List<Item> search(String text);
+    // Поиск по подстроке с ранжированием (PostgreSQL, GIN-индексы pg_trgm)
+    @Query(value = "select i.* from items i " +
+            "where i.is_available = true " +
+            "and (i.name ilike concat('%', ?1, '%') " +
+            "or i.description ilike concat('%', ?1, '%')) " +
+            "order by greatest(similarity(i.name, ?1), similarity(i.description, ?1)) desc, i.id",
+            nativeQuery = true)
+    List<Item> searchRanked(String text, Pageable pageable);
 
-    // Новый метод для Item Requests
-    List<Item> findByRequest(Long requestId);
+    // Ответы на запросы вещей: сразу для набора запросов, id владельца без загрузки User
+    @Query("select new ru.practicum.shareit.item.dto.ItemShortDto(i.id, i.name, i.owner.id, i.request) " +
+            "from Item i " +
+            "where i.request in ?1")
+    List<ItemShortDto> findByRequestIn(Collection<Long> requestIds);
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск по триграммному инвертированному индексу в памяти процесса.
+ * Предназначен для H2 и тестов: индекс живёт в одном экземпляре сервера
+ * и перестраивается из базы при старте.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "in-memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+
+    private final Map<Long, IndexedItem> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Item> items = itemRepository.findAll();
+        items.forEach(this::index);
+        log.info("In-memory item search index built for {} items", items.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        IndexedItem previous = put(item.getId(), new IndexedItem(
+                normalize(item.getName()),
+                normalize(item.getDescription()),
+                Boolean.TRUE.equals(item.getAvailable())));
+        // После отката транзакции в индексе не должно остаться несуществующих вещей:
+        // иначе они занимают места на странице и вытесняют реальные совпадения
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        put(item.getId(), previous);
+                    }
+                }
+            });
+        }
+    }
+
+    private synchronized IndexedItem put(Long id, IndexedItem document) {
+        IndexedItem previous = documents.remove(id);
+        if (previous != null) {
+            for (String gram : previous.grams()) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+        if (document != null) {
+            for (String gram : document.grams()) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+            documents.put(id, document);
+        }
+        return previous;
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        String query = normalize(text);
+
+        List<Long> page = candidates(query).stream()
+                .filter(id -> {
+                    IndexedItem document = documents.get(id);
+                    return document != null && document.available() && document.score(query) > 0;
+                })
+                .sorted(Comparator.<Long>comparingInt(id -> documents.get(id).score(query)).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+
+        // Индекс может отставать от базы (например, после отката транзакции), поэтому
+        // порядок берётся из индекса, а сами вещи и их доступность - из базы
+        Map<Long, Item> items = itemRepository.findAllById(page).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return page.stream()
+                .map(items::get)
+                .filter(item -> item != null && Boolean.TRUE.equals(item.getAvailable()))
+                .toList();
+    }
+
+    private Set<Long> candidates(String query) {
+        if (query.length() < GRAM) {
+            return documents.keySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record IndexedItem(String name, String description, boolean available) {
+
+        Set<String> grams() {
+            Set<String> grams = InMemoryItemSearchEngine.grams(name);
+            grams.addAll(InMemoryItemSearchEngine.grams(description));
+            return grams;
+        }
+
+        // Совпадение в названии важнее совпадения в описании
+        int score(String query) {
+            if (name.contains(query)) {
+                return 2;
+            }
+            return description.contains(query) ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поисковый движок по вещам.
+ * Ищет подстроку в названии или описании доступных для аренды вещей
+ * и возвращает страницу результатов, упорядоченных по релевантности.
+ */
+public interface ItemSearchEngine {
+
+    // page - смещение в строках и размер страницы (OffsetPageRequest)
+    List<Item> search(String text, Pageable page);
+
+    /**
+     * Сообщить движку о созданной или изменённой вещи.
+     * Движкам, которые ищут напрямую в базе, делать ничего не нужно.
+     */
+    default void index(Item item) {
+    }
+}
@@ -1,22 +1,33 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemService {
 
     ItemDto addItem(Long userId, ItemDto itemDto);
 
+    List<ItemImportResultDto> importItems(Long userId, List<ItemImportRowDto> rows);
+
     ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto);
 
     ItemWithBookingsDto getItemById(Long itemId, Long userId);
 
+    Optional<String> getItemVersionTag(Long itemId, Long userId);
+
     List<ItemWithBookingsDto> getItemsByOwner(Long userId);
 
-    List<ItemDto> searchItems(String text);
+    List<ItemDto> searchItems(String text, int from, int size);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
 }
\ No newline at end of file
@@ -1,45 +1,79 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.interval.ApprovedBookingIndex;
+import ru.practicum.shareit.booking.interval.BookingInterval;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryTracker;
+import ru.practicum.shareit.booking.summary.LastAndNextBookings;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ErrorCode;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Observed(name = "shareit.service")
 public class ItemServiceImpl implements ItemService {
 
+    // Сколько вставок копится в контексте персистентности между flush/clear при импорте;
+    // кратно hibernate.jdbc.batch_size
+    private static final int IMPORT_FLUSH_SIZE = 500;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ApprovedBookingIndex approvedBookingIndex;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ItemRequestRepository itemRequestRepository;
+    private final EntityManager entityManager;
+    private final ItemBookingSummaryTracker itemBookingSummaryTracker;
 
     @Override
     @Transactional
     public ItemDto addItem(Long userId, ItemDto itemDto) {
         log.debug("Adding item for user with id: {}", userId);
         User owner = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
 
         Item item = ItemMapper.toItem(itemDto);
         item.setOwner(owner);
@@ -50,24 +84,73 @@ public class ItemServiceImpl implements ItemService {
         }
 
         item = itemRepository.save(item);
+        itemSearchEngine.index(item);
 
         log.info("Item created with id: {}", item.getId());
         return ItemMapper.toItemDto(item);
     }
 
+    @Override
+    @Transactional
+    public List<ItemImportResultDto> importItems(Long userId, List<ItemImportRowDto> rows) {
+        log.debug("Importing {} items for user with id: {}", rows.size(), userId);
+        User owner = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
+
+        List<Long> requestIds = rows.stream()
+                .map(row -> row.item().requestId())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Set<Long> existingRequests = requestIds.isEmpty()
+                ? Set.of()
+                : Set.copyOf(itemRequestRepository.findExistingIds(requestIds));
+
+        // Новые вещи не кладутся в кэш второго уровня: импорт вытеснил бы из него всё остальное
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        List<ItemImportResultDto> results = new ArrayList<>(rows.size());
+        int pending = 0;
+        for (ItemImportRowDto row : rows) {
+            Long requestId = row.item().requestId();
+            if (requestId != null && !existingRequests.contains(requestId)) {
+                results.add(ItemImportResultDto.failed(row.row(), ErrorCode.REQUEST_NOT_FOUND.format(requestId)));
+                continue;
+            }
+
+            Item item = ItemMapper.toItem(row.item());
+            item.setId(null);
+            item.setOwner(owner);
+            item = itemRepository.save(item);
+            itemSearchEngine.index(item);
+            results.add(ItemImportResultDto.created(row.row(), item.getId()));
+
+            // Вставки уходят пакетами при flush, clear не даёт контексту разрастись
+            if (++pending % IMPORT_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        log.info("Imported {} of {} items for user with id: {}", pending, rows.size(), userId);
+        return results;
+    }
+
     @Override
     @Transactional
     public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
         log.debug("Updating item with id: {} by user with id: {}", itemId, userId);
         Item existingItem = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Item with id=" + itemId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, itemId));
 
         if (!existingItem.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("User with id=" + userId + " is not the owner of the item");
+            throw new NotFoundException(ErrorCode.NOT_ITEM_OWNER, userId);
         }
 
         Item updatedItem = ItemMapper.updateItemFromDto(existingItem, itemDto);
         updatedItem = itemRepository.save(updatedItem);
+        itemSearchEngine.index(updatedItem);
+        entityCacheEvictor.evictItem(itemId);
 
         log.info("Item updated with id: {}", itemId);
         return ItemMapper.toItemDto(updatedItem);
@@ -77,54 +160,108 @@ public class ItemServiceImpl implements ItemService {
     public ItemWithBookingsDto getItemById(Long itemId, Long userId) {
         log.debug("Getting item by id: {}", itemId);
         Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Item with id=" + itemId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, itemId));
 
-        // Бронирования видны только владельцу
-        Booking lastBooking = null;
-        Booking nextBooking = null;
+        // Бронирования видны только владельцу и берутся из снимка вещи
+        LastAndNextBookings bookings = LastAndNextBookings.NONE;
         if (userId != null && item.getOwner().getId().equals(userId)) {
-            LocalDateTime now = LocalDateTime.now();
-            lastBooking = bookingRepository.findLastBookingForItem(itemId, now);
-            nextBooking = bookingRepository.findNextBookingForItem(itemId, now);
+            bookings = itemBookingSummaryTracker.get(itemId, LocalDateTime.now());
         }
 
         List<Comment> comments = commentRepository.findByItemId(itemId);
 
-        return ItemMapper.toItemWithBookingsDto(item, lastBooking, nextBooking, comments);
+        return ItemMapper.toItemWithBookingsDto(item, bookings.last(), bookings.next(), comments);
+    }
+
+    // Владельцу ETag не выдаётся: снимок бронирований в его ответе меняется со временем
+    // без изменения версии вещи. Вещь читается так же, как для ответа (из кэша второго уровня),
+    // поэтому проверка владельца не добавляет запроса к ответу владельцу
+    @Override
+    public Optional<String> getItemVersionTag(Long itemId, Long userId) {
+        return itemRepository.findById(itemId)
+                .filter(item -> !item.getOwner().getId().equals(userId))
+                .map(item -> String.valueOf(item.getVersion()));
     }
 
     @Override
     public List<ItemWithBookingsDto> getItemsByOwner(Long userId) {
         log.debug("Getting items for user with id: {}", userId);
         if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("User with id=" + userId + " not found");
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
         }
 
         List<Item> items = itemRepository.findByOwnerId(userId);
-        LocalDateTime now = LocalDateTime.now();
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .toList();
+
+        // Снимки бронирований и комментарии загружаются одним запросом на все вещи и группируются в памяти
+        Map<Long, LastAndNextBookings> bookings = itemBookingSummaryTracker.getForOwner(userId, LocalDateTime.now());
+
+        Map<Long, List<Comment>> comments = commentRepository.findByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
 
         return items.stream()
                 .map(item -> {
-                    Booking lastBooking = bookingRepository.findLastBookingForItem(item.getId(), now);
-                    Booking nextBooking = bookingRepository.findNextBookingForItem(item.getId(), now);
-                    List<Comment> comments = commentRepository.findByItemId(item.getId());
-                    return ItemMapper.toItemWithBookingsDto(item, lastBooking, nextBooking, comments);
+                    LastAndNextBookings itemBookings = bookings.getOrDefault(item.getId(), LastAndNextBookings.NONE);
+                    return ItemMapper.toItemWithBookingsDto(
+                            item,
+                            itemBookings.last(),
+                            itemBookings.next(),
+                            comments.get(item.getId()));
                 })
                 .toList();
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
-        log.debug("Searching items with text: {}", text);
+    public List<ItemDto> searchItems(String text, int from, int size) {
+        log.debug("Searching items with text: {}, from={}, size={}", text, from, size);
+        Pageable page = OffsetPageRequest.of(from, size);
         if (text == null || text.isBlank()) {
             return Collections.emptyList();
         }
 
-        return itemRepository.search(text).stream()
+        return itemSearchEngine.search(text, page).stream()
                 .map(ItemMapper::toItemDto)
                 .toList();
     }
 
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        log.debug("Getting availability of item {} from {} to {}", itemId, from, to);
+        if (!from.isBefore(to)) {
+            throw new BadRequestException(ErrorCode.INVALID_PERIOD);
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(ErrorCode.ITEM_NOT_FOUND, itemId);
+        }
+
+        List<BookingInterval> busy = approvedBookingIndex.busy(itemId, from, to);
+
+        // Свободные промежутки - разрывы между занятыми периодами внутри [from, to)
+        List<ItemAvailabilityDto.PeriodDto> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (BookingInterval interval : busy) {
+            if (interval.start().isAfter(freeFrom)) {
+                free.add(new ItemAvailabilityDto.PeriodDto(freeFrom, interval.start()));
+            }
+            if (interval.end().isAfter(freeFrom)) {
+                freeFrom = interval.end();
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            free.add(new ItemAvailabilityDto.PeriodDto(freeFrom, to));
+        }
+
+        return new ItemAvailabilityDto(itemId, from, to, free, busy.stream()
+                .map(interval -> new ItemAvailabilityDto.PeriodDto(interval.start(), interval.end()))
+                .toList());
+    }
+
     @Override
     @Transactional
     public CommentDto addComment(Long userId, Long itemId, CommentDto commentDto) {
@@ -132,11 +269,11 @@ public class ItemServiceImpl implements ItemService {
 
         // Проверка существования пользователя
         User author = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
 
         // Проверка существования вещи
         Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Item with id=" + itemId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, itemId));
 
         // Проверка что пользователь брал вещь в аренду и аренда завершилась
         LocalDateTime now = LocalDateTime.now();
@@ -144,9 +281,7 @@ public class ItemServiceImpl implements ItemService {
                 userId, itemId, now);
 
         if (!hasBooking) {
-            throw new BadRequestException(
-                    "User with id=" + userId + " cannot comment item with id=" + itemId +
-                            " without completed booking");
+            throw new BadRequestException(ErrorCode.COMMENT_WITHOUT_BOOKING, userId, itemId);
         }
 
         Comment comment = new Comment();
@@ -156,6 +291,11 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
 
         comment = commentRepository.save(comment);
+        // Комментарии входят в ответ GET /items/{itemId}, поэтому новый меняет версию (и ETag) вещи.
+        // Версия увеличивается сразу, а одновременные комментарии к вещи ждут блокировки строки
+        entityManager.lock(item, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        // Версия в кэше второго уровня обновится при следующем чтении вещи
+        entityCacheEvictor.evictItem(itemId);
         log.info("Comment created with id: {}", comment.getId());
 
         return ItemMapper.toCommentDto(comment);
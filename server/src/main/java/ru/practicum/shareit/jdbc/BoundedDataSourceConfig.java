@@ -0,0 +1,44 @@
+package ru.practicum.shareit.jdbc;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Ограничение одновременных обращений к пулу соединений.
+ * Включается вместе с виртуальными потоками: их число не ограничено пулом потоков Tomcat,
+ * поэтому без семафора все ожидающие запросы одновременно конкурировали бы за соединения Hikari.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.jdbc.bounded", havingValue = "true")
+public class BoundedDataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BoundedDataSource)) {
+                    return new BoundedDataSource(dataSource,
+                            environment.getRequiredProperty("shareit.jdbc.max-concurrency", Integer.class),
+                            environment.getRequiredProperty("shareit.jdbc.acquire-timeout", Duration.class));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Время ожидания разрешения и число ожидающих - в /actuator/metrics/shareit.jdbc.*;
+    // ожидание соединения в самом пуле - в hikaricp.connections.acquire
+    @Bean
+    public MeterBinder boundedDataSourceMetrics(DataSource dataSource) throws SQLException {
+        return dataSource.unwrap(BoundedDataSource.class);
+    }
+}
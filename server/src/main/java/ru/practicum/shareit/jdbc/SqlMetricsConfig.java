@@ -0,0 +1,68 @@
+package ru.practicum.shareit.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Метрики SQL вместо логов каждого выражения: источник данных оборачивается datasource-proxy,
+ * слушатель которого измеряет выражения (SqlStatementListener), а перехватчик запросов относит их
+ * к методам контроллеров (SqlStatementMetricsInterceptor) и сверяет с бюджетом (SqlStatementBudget).
+ * В лог выражения попадают выборочно (SqlStatementSampler, shareit.sql-log.*).
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.sql-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    public SqlMetricsConfig(MeterRegistry meterRegistry, Environment environment) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlMetricsDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                      Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new SqlStatementListener(meterRegistry));
+                    double sampleRate = environment.getProperty("shareit.sql-log.sample-rate", Double.class, 0.0);
+                    Duration slowThreshold = environment.getProperty("shareit.sql-log.slow-threshold",
+                            Duration.class, Duration.ZERO);
+                    if (sampleRate > 0 || !slowThreshold.isZero()) {
+                        builder.listener(new SqlStatementSampler(sampleRate, slowThreshold));
+                    }
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlStatementBudget sqlStatementBudget() {
+        return new SqlStatementBudget(environment, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatementMetricsInterceptor(meterRegistry, sqlStatementBudget()));
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * Бюджет SQL-выражений на запрос по методам контроллеров:
+ * shareit.sql-budget.handlers[ItemController.getItemsByOwner]=5, для остальных - shareit.sql-budget.default.
+ * В тестах (fail-on-exceed=true) выражение сверх бюджета завершает запрос ошибкой,
+ * в работе превышение только учитывается в метрике shareit.sql.budget.exceeded с тегом handler.
+ */
+@Slf4j
+public class SqlStatementBudget {
+
+    private final int defaultBudget;
+    private final boolean failOnExceed;
+    private final Map<String, Integer> handlerBudgets;
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementBudget(Environment environment, MeterRegistry meterRegistry) {
+        this.defaultBudget = environment.getRequiredProperty("shareit.sql-budget.default", Integer.class);
+        this.failOnExceed = environment.getRequiredProperty("shareit.sql-budget.fail-on-exceed", Boolean.class);
+        this.handlerBudgets = Binder.get(environment)
+                .bind("shareit.sql-budget.handlers", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+        this.meterRegistry = meterRegistry;
+    }
+
+    public int budgetFor(String handler) {
+        return handlerBudgets.getOrDefault(handler, defaultBudget);
+    }
+
+    public boolean failOnExceed() {
+        return failOnExceed;
+    }
+
+    void exceeded(String handler, SqlStatementCounter counter) {
+        log.warn("SQL statement budget exceeded by {}: {} statements, budget {}",
+                handler, counter.statements(), counter.budget());
+        meterRegistry.counter("shareit.sql.budget.exceeded", "handler", handler).increment();
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.jdbc;
+
+/**
+ * Обработчик запроса попытался выполнить больше SQL-выражений, чем позволяет его бюджет.
+ * Бросается только при shareit.sql-budget.fail-on-exceed=true (в тестах).
+ */
+public class SqlStatementBudgetExceededException extends IllegalStateException {
+
+    public SqlStatementBudgetExceededException(String scope, int budget) {
+        super("SQL statement budget exceeded by " + scope + ": more than " + budget + " statements");
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.jdbc;
+
+import java.time.Duration;
+
+/**
+ * Число и суммарное время SQL-выражений, выполненных потоком текущего запроса.
+ * Счёт начинается start() и заканчивается stop(); выражения вне этого промежутка
+ * (фоновые задачи, прогрев) не считаются. Счётчики вкладываются: выражение засчитывается
+ * всем открытым счётчикам потока, поэтому проверка в тесте может охватывать запрос к контроллеру.
+ */
+public final class SqlStatementCounter {
+
+    public static final int UNLIMITED = -1;
+
+    private static final ThreadLocal<SqlStatementCounter> CURRENT = new ThreadLocal<>();
+
+    private final SqlStatementCounter parent;
+    private final String scope;
+    private final int budget;
+    private final boolean enforced;
+    private int statements;
+    private long nanos;
+    private boolean overrun;
+
+    private SqlStatementCounter(SqlStatementCounter parent, String scope, int budget, boolean enforced) {
+        this.parent = parent;
+        this.scope = scope;
+        this.budget = budget;
+        this.enforced = enforced;
+    }
+
+    public static SqlStatementCounter start() {
+        return start(null, UNLIMITED, false);
+    }
+
+    // enforced = true: выражение сверх бюджета не выполняется, а завершается SqlStatementBudgetExceededException
+    public static SqlStatementCounter start(String scope, int budget, boolean enforced) {
+        SqlStatementCounter counter = new SqlStatementCounter(CURRENT.get(), scope, budget, enforced);
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    public static SqlStatementCounter current() {
+        return CURRENT.get();
+    }
+
+    public static SqlStatementCounter stop() {
+        SqlStatementCounter counter = CURRENT.get();
+        if (counter == null) {
+            return null;
+        }
+        if (counter.parent != null) {
+            CURRENT.set(counter.parent);
+        } else {
+            CURRENT.remove();
+        }
+        return counter;
+    }
+
+    void beforeStatement() {
+        for (SqlStatementCounter counter = this; counter != null; counter = counter.parent) {
+            if (counter.budget != UNLIMITED && counter.statements >= counter.budget) {
+                counter.overrun = true;
+                if (counter.enforced) {
+                    throw new SqlStatementBudgetExceededException(counter.scope, counter.budget);
+                }
+            }
+        }
+    }
+
+    void record(long elapsedNanos) {
+        for (SqlStatementCounter counter = this; counter != null; counter = counter.parent) {
+            counter.statements++;
+            counter.nanos += elapsedNanos;
+        }
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public Duration time() {
+        return Duration.ofNanos(nanos);
+    }
+
+    public int budget() {
+        return budget;
+    }
+
+    // Было ли хотя бы одно выражение сверх бюджета (в том числе не выполненное из-за строгого бюджета)
+    public boolean overBudget() {
+        return overrun;
+    }
+}
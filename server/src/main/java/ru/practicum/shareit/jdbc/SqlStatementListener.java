@@ -0,0 +1,64 @@
+package ru.practicum.shareit.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Слушатель datasource-proxy: время каждого выполнения SQL (пакет - одно выполнение)
+ * в таймер shareit.sql.statements с тегами type и success,
+ * и в счётчик текущего запроса (SqlStatementCounter), который до выполнения проверяет бюджет.
+ */
+public class SqlStatementListener implements QueryExecutionListener {
+
+    private static final String STARTED = "shareit.started";
+
+    // Реестр берётся при первом выражении: источник данных создаётся раньше него
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SqlStatementListener(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatementCounter counter = SqlStatementCounter.current();
+        if (counter != null) {
+            counter.beforeStatement();
+        }
+        execInfo.addCustomValue(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = System.nanoTime() - execInfo.getCustomValue(STARTED, Long.class);
+
+        SqlStatementCounter counter = SqlStatementCounter.current();
+        if (counter != null) {
+            counter.record(elapsed);
+        }
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.timer("shareit.sql.statements",
+                            "type", type(queryInfoList),
+                            "success", String.valueOf(execInfo.isSuccess()))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String type(List<QueryInfo> queryInfoList) {
+        QueryType type = queryInfoList.isEmpty()
+                ? QueryType.OTHER
+                : QueryUtils.getQueryType(queryInfoList.get(0).getQuery());
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
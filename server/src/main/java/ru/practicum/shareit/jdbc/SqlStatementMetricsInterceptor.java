@@ -0,0 +1,70 @@
+package ru.practicum.shareit.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Считает SQL-выражения каждого запроса к контроллеру и публикует их по методам контроллеров:
+ * shareit.sql.statements.per.request (число) и shareit.sql.time.per.request (время) с тегом handler.
+ * Рост числа выражений на запрос - признак N+1, видимый в метриках без логов SQL.
+ * Счётчик запроса ограничен бюджетом метода контроллера (SqlStatementBudget).
+ */
+public class SqlStatementMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final SqlStatementBudget budget;
+
+    public SqlStatementMetricsInterceptor(MeterRegistry meterRegistry, SqlStatementBudget budget) {
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+    }
+
+    // Имя метода контроллера для тегов: "ItemController.getItemsByOwner"
+    public static String handlerName(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            String name = handlerName(handlerMethod);
+            SqlStatementCounter.start(name, budget.budgetFor(name), budget.failOnExceed());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        finish(handler);
+    }
+
+    // Асинхронная часть запроса (потоковая выгрузка) идёт в другом потоке и не считается
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        finish(handler);
+    }
+
+    private void finish(Object handler) {
+        SqlStatementCounter counter = SqlStatementCounter.stop();
+        if (counter == null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        String name = handlerName(handlerMethod);
+        DistributionSummary.builder("shareit.sql.statements.per.request")
+                .baseUnit("statements")
+                .tag("handler", name)
+                .register(meterRegistry)
+                .record(counter.statements());
+        meterRegistry.timer("shareit.sql.time.per.request", "handler", name)
+                .record(counter.time());
+        if (counter.overBudget()) {
+            budget.exceeded(name, counter);
+        }
+    }
+}
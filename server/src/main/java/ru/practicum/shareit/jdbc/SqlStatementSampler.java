@@ -0,0 +1,52 @@
+package ru.practicum.shareit.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Выборочный лог SQL вместо org.hibernate.SQL: пишется доля sampleRate выражений и все,
+ * что выполнялись дольше slowThreshold. Параметры запросов не пишутся.
+ * Строка лога собирается только для выбранных выражений.
+ */
+@Slf4j
+public class SqlStatementSampler implements QueryExecutionListener {
+
+    private final double sampleRate;
+    private final long slowThresholdMillis;
+
+    public SqlStatementSampler(double sampleRate, Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdMillis = slowThreshold.toMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        long elapsed = execInfo.getElapsedTime();
+        if (slowThresholdMillis > 0 && elapsed >= slowThresholdMillis) {
+            log.info("Slow SQL ({} ms, batch {}, success {}): {}",
+                    elapsed, execInfo.getBatchSize(), execInfo.isSuccess(), queries(queryInfoList));
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Sampled SQL ({} ms, batch {}, success {}): {}",
+                    elapsed, execInfo.getBatchSize(), execInfo.isSuccess(), queries(queryInfoList));
+        }
+    }
+
+    private static String queries(List<QueryInfo> queryInfoList) {
+        return queryInfoList.size() == 1
+                ? queryInfoList.get(0).getQuery()
+                : queryInfoList.stream().map(QueryInfo::getQuery).toList().toString();
+    }
+}
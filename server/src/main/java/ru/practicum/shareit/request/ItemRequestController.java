@@ -3,10 +3,12 @@ package ru.practicum.shareit.request;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/requests")
@@ -46,11 +48,17 @@ public class ItemRequestController {
 
     /**
      * GET /requests/{requestId} — получить один запрос c ответами.
+     * С ETag; если запрос и ответы на него не менялись с If-None-Match — 304 Not Modified.
      */
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @PathVariable Long requestId) {
+                                         @PathVariable Long requestId,
+                                         WebRequest request) {
         log.info("Getting request {} by user {}", requestId, userId);
+        Optional<String> etag = itemRequestService.getRequestVersionTag(userId, requestId);
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return null;
+        }
         return itemRequestService.getRequestById(userId, requestId);
     }
 }
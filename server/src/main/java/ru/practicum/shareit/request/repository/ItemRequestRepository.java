@@ -2,13 +2,29 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findByRequestorId(Long requestorId, Sort sort);
 
     List<ItemRequest> findByRequestorIdNot(Long requestorId, Sort sort);
+
+    // ETag запроса - его версия, число ответов и сумма их версий: ответы не удаляются и не переходят
+    // к другому запросу, поэтому новый ответ или изменение ответа всегда меняют ETag
+    @Query("select cast(r.version as String) || '.' || cast(count(i) as String) || '.' || " +
+            "cast(coalesce(sum(i.version), 0) as String) " +
+            "from ItemRequest r left join Item i on i.request = r.id " +
+            "where r.id = ?1 " +
+            "group by r.version")
+    Optional<String> findVersionTag(Long requestId);
+
+    // Какие из запросов существуют - одним запросом для пачки импортируемых вещей
+    @Query("select r.id from ItemRequest r where r.id in ?1")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
\ No newline at end of file
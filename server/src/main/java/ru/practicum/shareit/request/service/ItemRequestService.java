@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.service;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestService {
 
@@ -13,4 +14,6 @@ public interface ItemRequestService {
     List<ItemRequestDto> getAllRequests(Long userId);
 
     ItemRequestDto getRequestById(Long userId, Long requestId);
+
+    Optional<String> getRequestVersionTag(Long userId, Long requestId);
 }
\ No newline at end of file
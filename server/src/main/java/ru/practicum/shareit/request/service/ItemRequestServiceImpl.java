@@ -1,11 +1,14 @@
 package ru.practicum.shareit.request.service;
 
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.ErrorCode;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -16,12 +19,15 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Observed(name = "shareit.service")
 public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
@@ -34,7 +40,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         log.debug("Creating request for user {}", userId);
 
         User requestor = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
 
         ItemRequest request = new ItemRequest();
         request.setDescription(requestDto.getDescription());
@@ -44,7 +50,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         request = itemRequestRepository.save(request);
         log.info("Request created with id: {}", request.getId());
 
-        return ItemRequestMapper.toItemRequestDto(request, itemRepository.findByRequest(request.getId()));
+        return ItemRequestMapper.toItemRequestDto(request, itemRepository.findByRequestIn(List.of(request.getId())));
     }
 
     @Override
@@ -52,17 +58,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         log.debug("Getting requests for user {}", userId);
 
         if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("User with id=" + userId + " not found");
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
         }
 
         Sort sort = Sort.by(Sort.Direction.DESC, "created");
         List<ItemRequest> requests = itemRequestRepository.findByRequestorId(userId, sort);
 
-        return requests.stream()
-                .map(request -> ItemRequestMapper.toItemRequestDto(
-                        request,
-                        itemRepository.findByRequest(request.getId())))
-                .collect(Collectors.toList());
+        return toItemRequestDtos(requests);
     }
 
     @Override
@@ -70,17 +72,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         log.debug("Getting all requests except user {}", userId);
 
         if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("User with id=" + userId + " not found");
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
         }
 
         Sort sort = Sort.by(Sort.Direction.DESC, "created");
         List<ItemRequest> requests = itemRequestRepository.findByRequestorIdNot(userId, sort);
 
-        return requests.stream()
-                .map(request -> ItemRequestMapper.toItemRequestDto(
-                        request,
-                        itemRepository.findByRequest(request.getId())))
-                .collect(Collectors.toList());
+        return toItemRequestDtos(requests);
     }
 
     @Override
@@ -88,12 +86,39 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         log.debug("Getting request {} by user {}", requestId, userId);
 
         if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("User with id=" + userId + " not found");
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
         }
 
         ItemRequest request = itemRequestRepository.findById(requestId)
-                .orElseThrow(() -> new NotFoundException("Request with id=" + requestId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.REQUEST_NOT_FOUND, requestId));
+
+        return ItemRequestMapper.toItemRequestDto(request, itemRepository.findByRequestIn(List.of(requestId)));
+    }
+
+    @Override
+    public Optional<String> getRequestVersionTag(Long userId, Long requestId) {
+        if (!userRepository.existsById(userId)) {
+            return Optional.empty();
+        }
+        return itemRequestRepository.findVersionTag(requestId);
+    }
+
+    // Ответы на все запросы загружаются одним запросом и группируются по id запроса
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
 
-        return ItemRequestMapper.toItemRequestDto(request, itemRepository.findByRequest(requestId));
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .toList();
+        Map<Long, List<ItemShortDto>> itemsByRequest = itemRepository.findByRequestIn(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemShortDto::requestId));
+
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(
+                        request,
+                        itemsByRequest.get(request.getId())))
+                .collect(Collectors.toList());
     }
 }
\ No newline at end of file
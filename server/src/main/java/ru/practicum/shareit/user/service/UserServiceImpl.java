@@ -1,10 +1,15 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.interval.ApprovedBookingIndex;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryTracker;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
 import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ErrorCode;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -17,9 +22,13 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Observed(name = "shareit.service")
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ItemBookingSummaryTracker itemBookingSummaryTracker;
+    private final ApprovedBookingIndex approvedBookingIndex;
 
     @Override
     @Transactional
@@ -39,7 +48,7 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(Long userId, UserDto userDto) {
         log.debug("Updating user with id: {}", userId);
         User existingUser = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
 
         if (userDto.email() != null && !userDto.email().isBlank()) {
             validateEmail(userDto.email(), userId);
@@ -47,6 +56,7 @@ public class UserServiceImpl implements UserService {
 
         User updatedUser = UserMapper.updateUserFromDto(existingUser, userDto);
         updatedUser = userRepository.save(updatedUser);
+        entityCacheEvictor.evictUser(userId);
 
         log.info("User updated with id: {}", userId);
         return UserMapper.toUserDto(updatedUser);
@@ -56,7 +66,7 @@ public class UserServiceImpl implements UserService {
     public UserDto getUserById(Long userId) {
         log.debug("Getting user by id: {}", userId);
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
         return UserMapper.toUserDto(user);
     }
 
@@ -73,20 +83,25 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(Long userId) {
         log.debug("Deleting user with id: {}", userId);
         if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("User with id=" + userId + " not found");
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
         }
+        // Бронирования пользователя и его вещей удаляются каскадом в базе - снимки с ними
+        // пересчитываются, а календарь доступности забывает их
+        itemBookingSummaryTracker.bookerDeleted(userId);
+        approvedBookingIndex.userDeleted(userId);
         userRepository.deleteById(userId);
+        entityCacheEvictor.evictDeletedUser(userId);
         log.info("User deleted with id: {}", userId);
     }
 
     private void validateEmail(String email, Long userId) {
         if (userId == null) {
             if (userRepository.existsByEmail(email)) {
-                throw new ConflictException("User with email=" + email + " already exists");
+                throw new ConflictException(ErrorCode.EMAIL_TAKEN, email);
             }
         } else {
             if (userRepository.existsByEmailAndIdNot(email, userId)) {
-                throw new ConflictException("User with email=" + email + " already exists");
+                throw new ConflictException(ErrorCode.EMAIL_TAKEN, email);
             }
         }
     }
@@ -0,0 +1,26 @@
+-- Снимок последнего и ближайшего следующего подтверждённого бронирования вещи.
+-- Поддерживается при подтверждении бронирования и фоновым обходом (ItemBookingSummaryTracker),
+-- поэтому чтение вещи владельцем не вычисляет бронирования заново.
+-- refresh_at - момент, когда снимок устаревает: начало следующего бронирования
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id BIGINT NOT NULL,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    last_start TIMESTAMP WITHOUT TIME ZONE,
+    last_end TIMESTAMP WITHOUT TIME ZONE,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    next_start TIMESTAMP WITHOUT TIME ZONE,
+    next_end TIMESTAMP WITHOUT TIME ZONE,
+    refresh_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_booking_summary_to_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_refresh_at ON item_booking_summary (refresh_at);
+
+-- Снимки для уже подтверждённых бронирований создаются устаревшими и заполняются первым обходом
+INSERT INTO item_booking_summary (item_id, refresh_at)
+SELECT DISTINCT item_id, TIMESTAMP '1970-01-01 00:00:00'
+FROM bookings
+WHERE status = 'APPROVED';
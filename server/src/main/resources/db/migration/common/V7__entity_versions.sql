@@ -0,0 +1,6 @@
+-- Версии строк для оптимистической блокировки (@Version) и ETag ответов GET /bookings/{id},
+-- GET /items/{id} и GET /requests/{id}: условный запрос проверяет только версию.
+-- Существующие строки получают версию 0
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,4 @@
+-- Последовательность для id вещей: Hibernate выделяет id блоками по 50 (оптимизатор pooled),
+-- поэтому вставки можно отправлять JDBC-пакетами, чего не позволяет IDENTITY.
+-- H2 используется только с пустой базой в памяти, поэтому последовательность начинается с 1
+CREATE SEQUENCE IF NOT EXISTS item_seq START WITH 1 INCREMENT BY 50;
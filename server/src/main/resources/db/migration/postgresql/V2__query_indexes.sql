@@ -0,0 +1,40 @@
+-- Индексы под запросы BookingRepository, ItemRepository, CommentRepository и ItemRequestRepository.
+-- Списки бронирований сортируются по (start_date desc, id desc) и листаются keyset-курсором,
+-- поэтому ключ индекса повторяет сортировку, а INCLUDE покрывает остальные колонки строки.
+
+-- Бронирования арендатора: ALL, CURRENT, PAST, FUTURE
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start
+    ON bookings (booker_id, start_date DESC, id DESC) INCLUDE (end_date, item_id, status);
+
+-- Бронирования арендатора по статусу: WAITING, REJECTED
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start
+    ON bookings (booker_id, status, start_date DESC, id DESC) INCLUDE (end_date, item_id);
+
+-- Бронирования вещей владельца (после соединения с items по owner_id)
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start
+    ON bookings (item_id, start_date DESC, id DESC) INCLUDE (end_date, booker_id, status);
+
+-- Последнее/следующее подтверждённое бронирование вещи
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start
+    ON bookings (item_id, status, start_date) INCLUDE (end_date, booker_id);
+
+-- Проверка завершённой аренды перед комментарием
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end
+    ON bookings (item_id, status, end_date) INCLUDE (booker_id);
+
+-- Вещи владельца и ответы на запросы
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id) INCLUDE (name, owner_id) WHERE request_id IS NOT NULL;
+
+-- Комментарии к вещам
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+-- Запросы пользователя и лента чужих запросов
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC);
+
+-- Поиск вещей по подстроке (ILIKE '%text%') через триграммы
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (name gin_trgm_ops) WHERE is_available;
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (description gin_trgm_ops) WHERE is_available;
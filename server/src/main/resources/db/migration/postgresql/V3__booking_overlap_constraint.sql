@@ -0,0 +1,8 @@
+-- Периоды ожидающих и подтверждённых бронирований одной вещи не должны пересекаться.
+-- Проверка выполняется при вставке и не требует блокировок на уровне приложения.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT ex_bookings_item_period
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
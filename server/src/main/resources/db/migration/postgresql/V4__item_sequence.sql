@@ -0,0 +1,5 @@
+-- Последовательность для id вещей: Hibernate выделяет id блоками по 50 (оптимизатор pooled),
+-- поэтому вставки можно отправлять JDBC-пакетами, чего не позволяет IDENTITY.
+-- Первое значение - максимальный id + 50: блок pooled-оптимизатора начинается сразу после него
+CREATE SEQUENCE IF NOT EXISTS item_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('item_seq', COALESCE((SELECT MAX(id) FROM items), 0) + 50, false);
@@ -0,0 +1,21 @@
+-- id всех сущностей выдаются последовательностями блоками (оптимизатор pooled-lo):
+-- значение последовательности - первый id блока, размер блока - шаг последовательности.
+-- Hibernate подстраивает allocationSize под шаг из базы (increment_size_mismatch_strategy=fix),
+-- поэтому размер блока меняется через ALTER SEQUENCE ... INCREMENT BY.
+-- item_seq создана в V4; её следующее значение уже больше всех выданных id
+CREATE SEQUENCE IF NOT EXISTS user_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS request_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS booking_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comment_seq INCREMENT BY 50;
+
+SELECT setval('user_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+SELECT setval('request_seq', COALESCE((SELECT MAX(id) FROM requests), 0) + 1, false);
+SELECT setval('booking_seq', COALESCE((SELECT MAX(id) FROM bookings), 0) + 1, false);
+SELECT setval('comment_seq', COALESCE((SELECT MAX(id) FROM comments), 0) + 1, false);
+
+-- Значения по умолчанию из IDENTITY больше не используются и разошлись бы с последовательностями
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,189 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryTracker;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.jdbc.SqlStatementAssertions.countStatements;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ConditionalGetIntegrationTest {
+
+    private final MockMvc mockMvc;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRequestService itemRequestService;
+    private final ItemBookingSummaryTracker itemBookingSummaryTracker;
+    private final EntityManager entityManager;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        booker = userService.createUser(new UserDto(null, "Booker", "booker@example.com"));
+        item = itemService.addItem(owner.id(), new ItemDto(null, "Дрель", "Ударная", true, null));
+    }
+
+    @Test
+    void getBooking_withCurrentEtag_shouldAnswerNotModifiedWithSingleStatement() throws Exception {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto booking = bookingService.createBooking(booker.id(),
+                new BookingDto(null, start, start.plusDays(1), item.id(), null, null, null));
+        String etag = etag("/bookings/" + booking.id(), booker.id());
+        entityManager.flush();
+
+        // When
+        int statements = countStatements(() -> perform("/bookings/" + booking.id(), booker.id(), etag, 304));
+
+        // Then
+        assertEquals(1, statements);
+    }
+
+    @Test
+    void getBooking_afterApproval_shouldAnswerWithNewEtag() throws Exception {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto booking = bookingService.createBooking(booker.id(),
+                new BookingDto(null, start, start.plusDays(1), item.id(), null, null, null));
+        String etag = etag("/bookings/" + booking.id(), booker.id());
+
+        // When
+        bookingService.approveBooking(owner.id(), booking.id(), true);
+        MvcResult result = perform("/bookings/" + booking.id(), booker.id(), etag, 200);
+
+        // Then
+        assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains("APPROVED"));
+    }
+
+    @Test
+    void getBooking_byStranger_shouldNotBeAnsweredNotModified() throws Exception {
+        // Given
+        UserDto stranger = userService.createUser(new UserDto(null, "Stranger", "stranger@example.com"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto booking = bookingService.createBooking(booker.id(),
+                new BookingDto(null, start, start.plusDays(1), item.id(), null, null, null));
+        String etag = etag("/bookings/" + booking.id(), booker.id());
+
+        // When & Then
+        perform("/bookings/" + booking.id(), stranger.id(), etag, 404);
+    }
+
+    @Test
+    void getItem_afterComment_shouldAnswerWithNewEtag() throws Exception {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto past = bookingService.createBooking(booker.id(),
+                new BookingDto(null, now.minusDays(3), now.minusDays(2), item.id(), null, null, null));
+        bookingService.approveBooking(owner.id(), past.id(), true);
+        String etag = etag("/items/" + item.id(), null);
+        perform("/items/" + item.id(), null, etag, 304);
+
+        // When
+        itemService.addComment(booker.id(), item.id(), new CommentDto(null, "Отличная вещь", null, null));
+        MvcResult result = perform("/items/" + item.id(), null, etag, 200);
+
+        // Then
+        assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains("Отличная вещь"));
+    }
+
+    @Test
+    void getItem_byOwner_shouldNotHaveEtag() throws Exception {
+        // When & Then - бронирования в ответе владельцу меняются без изменения версии вещи
+        mockMvc.perform(get("/items/" + item.id()).header("X-Sharer-User-Id", owner.id()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getItem_byOwnerWithStaleSnapshot_shouldStayWithinBudget() throws Exception {
+        // Given - снимок устарел, бронирования читаются из таблицы bookings, вещи нет в кэшах
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto past = bookingService.createBooking(booker.id(),
+                new BookingDto(null, now.minusDays(3), now.minusDays(2), item.id(), null, null, null));
+        bookingService.approveBooking(owner.id(), past.id(), true);
+        itemBookingSummaryTracker.bookerDeleted(booker.id());
+        entityManager.flush();
+        entityManager.clear();
+
+        // When & Then - в тестах запрос сверх бюджета ItemController.getItemById завершается ошибкой
+        mockMvc.perform(get("/items/" + item.id()).header("X-Sharer-User-Id", owner.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastBooking.id").value(past.id()));
+    }
+
+    @Test
+    void getRequest_afterNewAnswer_shouldAnswerWithNewEtag() throws Exception {
+        // Given
+        ItemRequestDto request = itemRequestService.createRequest(booker.id(),
+                new ItemRequestDto(null, "Нужна дрель", null, null));
+        String etag = etag("/requests/" + request.getId(), owner.id());
+        perform("/requests/" + request.getId(), owner.id(), etag, 304);
+
+        // When
+        itemService.addItem(owner.id(), new ItemDto(null, "Перфоратор", "Мощный", true, request.getId()));
+        MvcResult result = perform("/requests/" + request.getId(), owner.id(), etag, 200);
+
+        // Then
+        assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains("Перфоратор"));
+    }
+
+    private String etag(String path, Long userId) throws Exception {
+        String etag = perform(path, userId, null, 200).getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private MvcResult perform(String path, Long userId, String ifNoneMatch, int expectedStatus) {
+        var request = get(path);
+        if (userId != null) {
+            request.header("X-Sharer-User-Id", userId);
+        }
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        try {
+            return mockMvc.perform(request).andExpect(status().is(expectedStatus)).andReturn();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
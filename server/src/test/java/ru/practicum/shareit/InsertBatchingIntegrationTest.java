@@ -0,0 +1,115 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * id выдаются последовательностями блоками, поэтому вставки нескольких сущностей
+ * уходят одним JDBC-пакетом: один подготовленный INSERT на пакет вместо INSERT на строку.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class InsertBatchingIntegrationTest {
+
+    private static final int ROWS = 20;
+    // Вставка пакетом плюс выделение не более двух блоков id, если текущий блок закончится
+    private static final long MAX_STATEMENTS = 3;
+
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {User.class, Item.class, Booking.class, Comment.class, ItemRequest.class})
+    void entity_shouldTakeIdsFromSequenceWithPooledLoOptimizer(Class<?> entity) {
+        // When
+        var generator = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(entity)
+                .getGenerator();
+
+        // Then
+        SequenceStyleGenerator sequence = assertInstanceOf(SequenceStyleGenerator.class, generator);
+        assertInstanceOf(PooledLoOptimizer.class, sequence.getOptimizer());
+        assertEquals(50, sequence.getOptimizer().getIncrementSize());
+    }
+
+    @Test
+    void saveAll_users_shouldBeInsertedInOneBatch() {
+        // Given
+        List<User> users = IntStream.range(0, ROWS)
+                .mapToObj(i -> new User(null, "User " + i, "user" + i + "@example.com"))
+                .toList();
+        statistics.clear();
+
+        // When
+        userRepository.saveAll(users);
+        entityManager.flush();
+
+        // Then
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS,
+                "prepared " + statistics.getPrepareStatementCount() + " statements for " + ROWS + " inserts");
+    }
+
+    @Test
+    void saveAll_bookings_shouldBeInsertedInOneBatch() {
+        // Given
+        User owner = userRepository.save(new User(null, "Owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@example.com"));
+        Item item = new Item(null, "Дрель", "Ударная", true, owner, null, null);
+        entityManager.persist(item);
+        entityManager.flush();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = IntStream.range(0, ROWS)
+                .mapToObj(i -> new Booking(null, start.plusDays(i), start.plusDays(i).plusHours(1),
+                        item, booker, Status.WAITING, null))
+                .toList();
+        statistics.clear();
+
+        // When
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+
+        // Then
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS,
+                "prepared " + statistics.getPrepareStatementCount() + " statements for " + ROWS + " inserts");
+    }
+}
@@ -0,0 +1,360 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.ChainListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что запросы репозиториев выполняются через индексы из миграций, а не полным просмотром
+ * таблицы. Каждый метод репозитория вызывается на заполненной базе, SQL, который Hibernate
+ * на самом деле отправил в базу (вместе с параметрами), перехватывается слушателем datasource-proxy
+ * и разбирается через EXPLAIN.
+ * <p>
+ * Планы проверяются только на H2 тестового профиля: они показывают, что для условий запроса есть
+ * индекс, но не то, как их выполнит PostgreSQL. Планы PostgreSQL (и searchRanked с pg_trgm,
+ * которого нет в H2) этим тестом не проверяются.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class QueryPlanIntegrationTest {
+
+    private static final int USERS = 50;
+    private static final int ITEMS_PER_USER = 10;
+    private static final int BOOKINGS_PER_ITEM = 10;
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final LocalDateTime CURSOR_START = LocalDateTime.of(2100, 1, 1, 0, 0);
+    private static final PageRequest PAGE = PageRequest.of(0, 10);
+
+    private static final List<Class<?>> REPOSITORIES = List.of(UserRepository.class, ItemRequestRepository.class,
+            BookingRepository.class, ItemBookingSummaryRepository.class, CommentRepository.class,
+            ItemRepository.class);
+
+    // Полный просмотр в плане H2: таблицы или индекса целиком, без условий на его столбцы
+    private static final Pattern FULL_SCAN = Pattern.compile("tableScan|/\\* PUBLIC\\.\\w+ \\*/");
+
+    // Запросы, которым полный просмотр нужен по смыслу
+    private static final Map<String, String> EXPECTED_FULL_SCANS = Map.of(
+            "BookingRepository.findByStatusIn",
+            "читает все действующие бронирования при построении индекса пересечений в памяти",
+            "ItemRequestRepository.findByRequestorIdNot",
+            "отдаёт запросы всех остальных пользователей, индекс по created только задаёт порядок",
+            "ItemBookingSummaryRepository.markStaleByBookerId",
+            "выполняется только при удалении пользователя, снимков не больше, чем вещей");
+
+    // Запросы только для PostgreSQL: в H2 их не выполнить
+    private static final Set<String> POSTGRESQL_ONLY = Set.of("ItemRepository.searchRanked");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRepository itemRepository;
+
+    private final StatementCapture capture = new StatementCapture();
+
+    Stream<Arguments> finders() {
+        Sort byCreatedDesc = Sort.by(Sort.Direction.DESC, "created");
+        return Stream.of(
+                finder("UserRepository.existsById", () -> userRepository.existsById(1L)),
+                finder("UserRepository.existsByEmail", () -> userRepository.existsByEmail("user1@example.com")),
+                finder("UserRepository.existsByEmailAndIdNot",
+                        () -> userRepository.existsByEmailAndIdNot("user1@example.com", 2L)),
+                finder("UserRepository.findByEmail", () -> userRepository.findByEmail("user1@example.com")),
+
+                finder("ItemRequestRepository.findByRequestorId",
+                        () -> itemRequestRepository.findByRequestorId(1L, byCreatedDesc)),
+                finder("ItemRequestRepository.findByRequestorIdNot",
+                        () -> itemRequestRepository.findByRequestorIdNot(1L, byCreatedDesc)),
+                finder("ItemRequestRepository.findVersionTag", () -> itemRequestRepository.findVersionTag(1L)),
+                finder("ItemRequestRepository.findExistingIds",
+                        () -> itemRequestRepository.findExistingIds(List.of(1L, 2L))),
+
+                finder("BookingRepository.findVersionTag", () -> bookingRepository.findVersionTag(1L, 1L)),
+                finder("BookingRepository.findStartByIdAndBookerId",
+                        () -> bookingRepository.findStartByIdAndBookerId(1L, 1L)),
+                finder("BookingRepository.findStartByIdAndItemOwnerId",
+                        () -> bookingRepository.findStartByIdAndItemOwnerId(1L, 1L)),
+                finder("BookingRepository.findByBookerId",
+                        () -> bookingRepository.findByBookerId(1L, CURSOR_START, Long.MAX_VALUE, PAGE)),
+                finder("BookingRepository.findCurrentBookingsByBookerId",
+                        () -> bookingRepository.findCurrentBookingsByBookerId(1L, CURSOR_START, Long.MAX_VALUE,
+                                NOW, PAGE)),
+                finder("BookingRepository.findPastBookingsByBookerId",
+                        () -> bookingRepository.findPastBookingsByBookerId(1L, CURSOR_START, Long.MAX_VALUE,
+                                NOW, PAGE)),
+                finder("BookingRepository.findFutureBookingsByBookerId",
+                        () -> bookingRepository.findFutureBookingsByBookerId(1L, CURSOR_START, Long.MAX_VALUE,
+                                NOW, PAGE)),
+                finder("BookingRepository.findByBookerIdAndStatus",
+                        () -> bookingRepository.findByBookerIdAndStatus(1L, CURSOR_START, Long.MAX_VALUE,
+                                Status.WAITING, PAGE)),
+                finder("BookingRepository.countByBookerId", () -> bookingRepository.countByBookerId(1L, NOW)),
+                finder("BookingRepository.countByItemOwnerId", () -> bookingRepository.countByItemOwnerId(1L, NOW)),
+                finder("BookingRepository.findByItemOwnerId",
+                        () -> bookingRepository.findByItemOwnerId(1L, CURSOR_START, Long.MAX_VALUE, PAGE)),
+                finder("BookingRepository.streamByItemOwnerId", () -> {
+                    try (Stream<?> bookings = bookingRepository.streamByItemOwnerId(1L)) {
+                        bookings.count();
+                    }
+                }),
+                finder("BookingRepository.findCurrentBookingsByItemOwnerId",
+                        () -> bookingRepository.findCurrentBookingsByItemOwnerId(1L, CURSOR_START, Long.MAX_VALUE,
+                                NOW, PAGE)),
+                finder("BookingRepository.findPastBookingsByItemOwnerId",
+                        () -> bookingRepository.findPastBookingsByItemOwnerId(1L, CURSOR_START, Long.MAX_VALUE,
+                                NOW, PAGE)),
+                finder("BookingRepository.findFutureBookingsByItemOwnerId",
+                        () -> bookingRepository.findFutureBookingsByItemOwnerId(1L, CURSOR_START, Long.MAX_VALUE,
+                                NOW, PAGE)),
+                finder("BookingRepository.findByItemOwnerIdAndStatus",
+                        () -> bookingRepository.findByItemOwnerIdAndStatus(1L, CURSOR_START, Long.MAX_VALUE,
+                                Status.WAITING, PAGE)),
+                finder("BookingRepository.findByStatusIn",
+                        () -> bookingRepository.findByStatusIn(List.of(Status.WAITING, Status.APPROVED))),
+                finder("BookingRepository.findApprovedByBookerId",
+                        () -> bookingRepository.findApprovedByBookerId(1L)),
+                finder("BookingRepository.findApprovedByItemOwnerId",
+                        () -> bookingRepository.findApprovedByItemOwnerId(1L)),
+                finder("BookingRepository.findByItemId",
+                        () -> bookingRepository.findByItemId(1L, Sort.by(Sort.Direction.DESC, "start"))),
+                finder("BookingRepository.findLastBookingForItem",
+                        () -> bookingRepository.findLastBookingForItem(1L, NOW)),
+                finder("BookingRepository.findNextBookingForItem",
+                        () -> bookingRepository.findNextBookingForItem(1L, NOW)),
+                finder("BookingRepository.findLastAndNextBookingsForItems",
+                        () -> bookingRepository.findLastAndNextBookingsForItems(List.of(1L, 2L, 3L), NOW)),
+                finder("BookingRepository.existsByBookerIdAndItemIdAndEndBeforeAndStatusApproved",
+                        () -> bookingRepository.existsByBookerIdAndItemIdAndEndBeforeAndStatusApproved(1L, 1L, NOW)),
+
+                finder("ItemBookingSummaryRepository.findForUpdate", () -> summaryRepository.findForUpdate(1L)),
+                finder("ItemBookingSummaryRepository.lockItem", () -> summaryRepository.lockItem(1L)),
+                finder("ItemBookingSummaryRepository.findByItemOwnerId",
+                        () -> summaryRepository.findByItemOwnerId(1L)),
+                finder("ItemBookingSummaryRepository.findItemIdsToRefresh",
+                        () -> summaryRepository.findItemIdsToRefresh(NOW.minusYears(1), PageRequest.of(0, 100))),
+                finder("ItemBookingSummaryRepository.markStaleByBookerId",
+                        () -> summaryRepository.markStaleByBookerId(1L, NOW)),
+
+                finder("CommentRepository.findByItemId", () -> commentRepository.findByItemId(1L)),
+                finder("CommentRepository.findByItemIdIn", () -> commentRepository.findByItemIdIn(List.of(1L, 2L))),
+
+                finder("ItemRepository.existsById", () -> itemRepository.existsById(1L)),
+                finder("ItemRepository.findByOwnerId", () -> itemRepository.findByOwnerId(1L)),
+                finder("ItemRepository.findByRequestIn", () -> itemRepository.findByRequestIn(List.of(1L, 2L)))
+        );
+    }
+
+    private static Arguments finder(String name, Runnable call) {
+        return Arguments.of(name, call);
+    }
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> requests = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        List<Object[]> summaries = new ArrayList<>();
+
+        long itemId = 0;
+        long bookingId = 0;
+        for (long userId = 1; userId <= USERS; userId++) {
+            users.add(new Object[]{userId, "User " + userId, "user" + userId + "@example.com"});
+            requests.add(new Object[]{userId, "Request " + userId, userId, Timestamp.valueOf(NOW.minusDays(userId))});
+            for (int i = 0; i < ITEMS_PER_USER; i++) {
+                itemId++;
+                Long requestId = itemId % 3 == 0 ? (itemId % USERS) + 1 : null;
+                items.add(new Object[]{itemId, "Item " + itemId, "Description", true, userId, requestId});
+                comments.add(new Object[]{itemId, "Comment", itemId, (itemId % USERS) + 1, Timestamp.valueOf(NOW)});
+                summaries.add(new Object[]{itemId, Timestamp.valueOf(NOW.plusHours(itemId))});
+                for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                    bookingId++;
+                    LocalDateTime start = NOW.plusDays(b - BOOKINGS_PER_ITEM / 2);
+                    bookings.add(new Object[]{bookingId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)),
+                            itemId, (bookingId % USERS) + 1, b % 3 == 0 ? "WAITING" : "APPROVED"});
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("insert into requests (id, description, requestor_id, created) values (?, ?, ?, ?)",
+                requests);
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)",
+                comments);
+        jdbcTemplate.batchUpdate("insert into item_booking_summary (item_id, refresh_at) values (?, ?)", summaries);
+        jdbcTemplate.execute("analyze");
+
+        ChainListener listeners = assertInstanceOf(ProxyDataSource.class, dataSource).getProxyConfig()
+                .getQueryListener();
+        listeners.addListener(capture);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().getListeners().remove(capture);
+        jdbcTemplate.execute("delete from users");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finder_shouldNotFallBackToFullScan(String finder, Runnable call) {
+        // Given - без кэшей второго уровня и запросов, чтобы запрос дошёл до базы
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+
+        // When - изменения (markStaleByBookerId) откатываются
+        List<CapturedStatement> statements = capture.during(() -> transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            call.run();
+        }));
+
+        // Then
+        assertFalse(statements.isEmpty(), finder + " did not reach the database");
+        for (CapturedStatement statement : statements) {
+            String plan = explain(statement);
+            if (!EXPECTED_FULL_SCANS.containsKey(finder)) {
+                assertFalse(FULL_SCAN.matcher(plan).find(), finder + " uses a full scan:\n" + plan);
+            }
+        }
+    }
+
+    @Test
+    void finders_shouldCoverEveryRepositoryQueryMethod() {
+        // Given
+        Set<String> covered = finders()
+                .map(arguments -> (String) arguments.get()[0])
+                .collect(Collectors.toCollection(TreeSet::new));
+        covered.addAll(POSTGRESQL_ONLY);
+
+        // When
+        Set<String> declared = REPOSITORIES.stream()
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                        .map(method -> repository.getSimpleName() + "." + method.getName()))
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        // Then - новый метод репозитория должен попасть в finders()
+        assertEquals(declared, covered);
+    }
+
+    // EXPLAIN перехваченного выражения с теми же параметрами, что передал Hibernate
+    private String explain(CapturedStatement statement) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement explain = connection.prepareStatement("explain " + statement.sql());
+            for (ParameterSetOperation parameter : statement.parameters()) {
+                statement.apply(explain, parameter);
+            }
+            return explain;
+        }, resultSet -> {
+            resultSet.next();
+            return resultSet.getString(1);
+        });
+    }
+
+    private record CapturedStatement(String sql, List<ParameterSetOperation> parameters) {
+
+        void apply(PreparedStatement target, ParameterSetOperation parameter) throws SQLException {
+            Method setter = parameter.getMethod();
+            try {
+                setter.invoke(target, parameter.getArgs());
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new SQLException("Cannot replay " + setter.getName() + " for: " + sql, e);
+            }
+        }
+    }
+
+    // Слушатель datasource-proxy: запоминает выражения и параметры, пока идёт вызов метода репозитория
+    private static class StatementCapture implements QueryExecutionListener {
+
+        private final List<CapturedStatement> statements = new ArrayList<>();
+        private volatile Thread capturing;
+
+        List<CapturedStatement> during(Runnable call) {
+            statements.clear();
+            capturing = Thread.currentThread();
+            try {
+                call.run();
+            } finally {
+                capturing = null;
+            }
+            return List.copyOf(statements);
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (capturing != Thread.currentThread()) {
+                return;
+            }
+            for (QueryInfo query : queryInfoList) {
+                List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                        ? List.of()
+                        : List.copyOf(query.getParametersList().get(0));
+                statements.add(new CapturedStatement(query.getQuery(), parameters));
+            }
+        }
+    }
+}
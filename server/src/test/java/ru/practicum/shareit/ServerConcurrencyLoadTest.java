@@ -0,0 +1,188 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочный стенд сервера: пропускная способность и задержки списков бронирований
+ * владельца (BookingServiceImpl) и его вещей (ItemServiceImpl) в режиме платформенных потоков
+ * и в режиме виртуальных потоков с ограничением обращений к пулу соединений.
+ * Запуск: mvn -pl server test -Dtest=ServerConcurrencyLoadTest -Dshareit.load-test=true
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.load-test", matches = "true")
+class ServerConcurrencyLoadTest {
+
+    private static final int[] CONCURRENCY_LEVELS = {10, 50, 200, 500};
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ITEMS = 20;
+    private static final int BOOKERS = 10;
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    private static HttpClient httpClient;
+
+    @BeforeAll
+    static void startClient() {
+        httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @AfterAll
+    static void stopClient() {
+        httpClient.close();
+    }
+
+    @Test
+    void virtualThreadsWithBoundedPool_shouldServeOwnerListsWithoutErrors() throws Exception {
+        // When
+        List<String> platform = measure("platform threads", "--spring.threads.virtual.enabled=false",
+                "--shareit.jdbc.bounded=false");
+        List<String> virtual = measure("virtual threads + bounded pool", "--spring.threads.virtual.enabled=true",
+                "--shareit.jdbc.bounded=true");
+
+        // Then
+        platform.forEach(log::warn);
+        virtual.forEach(log::warn);
+        assertTrue(virtual.stream().allMatch(line -> line.endsWith("errors 0")));
+    }
+
+    private List<String> measure(String mode, String... modeArgs) throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                // Своя база для каждого режима, чтобы не пересекаться с контекстом других тестов
+                "--spring.datasource.url=jdbc:h2:mem:load-" + System.nanoTime(),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.org.springframework.orm.jpa=WARN",
+                "--logging.level.org.springframework.transaction=WARN",
+                "--logging.level.org.springframework.transaction.interceptor=WARN",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"));
+        args.addAll(List.of(modeArgs));
+
+        try (ConfigurableApplicationContext server = new SpringApplicationBuilder(ShareItServer.class)
+                .run(args.toArray(String[]::new))) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) server).getWebServer().getPort();
+            long ownerId = seed(baseUrl);
+            List<HttpRequest> requests = List.of(
+                    get(baseUrl + "/bookings/owner?state=ALL&from=0&size=20", ownerId),
+                    get(baseUrl + "/items", ownerId));
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                run(requests, CONCURRENCY_LEVELS[0]);
+            }
+
+            List<String> report = new ArrayList<>();
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                long started = System.nanoTime();
+                List<Long> latencies = run(requests, concurrency);
+                double seconds = (System.nanoTime() - started) / 1e9;
+                long errors = latencies.stream().filter(latency -> latency < 0).count();
+                report.add(String.format("%s: concurrency %d -> %d req/s, p50 %d ms, p99 %d ms, errors %d",
+                        mode, concurrency, Math.round(latencies.size() / seconds),
+                        Duration.ofNanos(percentile(latencies, 0.50)).toMillis(),
+                        Duration.ofNanos(percentile(latencies, 0.99)).toMillis(), errors));
+            }
+            return report;
+        }
+    }
+
+    // Владелец с вещами и бронированиями нескольких арендаторов; возвращает id владельца
+    private long seed(String baseUrl) throws Exception {
+        long ownerId = post(baseUrl + "/users", null, "{\"name\":\"Owner\",\"email\":\"owner@example.com\"}");
+        List<Long> bookers = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            bookers.add(post(baseUrl + "/users", null,
+                    "{\"name\":\"Booker " + i + "\",\"email\":\"booker" + i + "@example.com\"}"));
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < ITEMS; i++) {
+            long itemId = post(baseUrl + "/items", ownerId,
+                    "{\"name\":\"Item " + i + "\",\"description\":\"Description\",\"available\":true}");
+            for (int j = 0; j < BOOKERS; j++) {
+                post(baseUrl + "/bookings", bookers.get(j), "{\"itemId\":" + itemId
+                        + ",\"start\":\"" + start.plusDays(j * 2L) + "\",\"end\":\"" + start.plusDays(j * 2L + 1) + "\"}");
+            }
+        }
+        return ownerId;
+    }
+
+    private long post(String url, Long userId, String json) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (userId != null) {
+            request.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        Matcher id = ID.matcher(response.body());
+        assertTrue(id.find());
+        return Long.parseLong(id.group(1));
+    }
+
+    private static HttpRequest get(String url, long userId) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET()
+                .build();
+    }
+
+    // Закрытая модель нагрузки: concurrency клиентов, каждый шлёт запросы подряд.
+    // Неуспешный запрос отмечается отрицательной задержкой
+    private List<Long> run(List<HttpRequest> requests, int concurrency) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                int client = i;
+                futures.add(clients.submit(() -> {
+                    for (int j = 0; j < REQUESTS_PER_CLIENT; j++) {
+                        HttpRequest request = requests.get((client + j) % requests.size());
+                        long started = System.nanoTime();
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        long latency = System.nanoTime() - started;
+                        latencies.add(response.statusCode() == 200 ? latency : -latency);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return latencies;
+    }
+
+    private static long percentile(List<Long> values, double percentile) {
+        List<Long> sorted = new ArrayList<>(values.stream().map(Math::abs).toList());
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(percentile * sorted.size()) - 1);
+    }
+}
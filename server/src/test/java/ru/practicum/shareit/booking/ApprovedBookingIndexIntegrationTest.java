@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.interval.ApprovedBookingIndex;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Индекс очищается после фиксации удаления пользователя, поэтому тест без @Transactional
+ * и удаляет свои данные сам.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ApprovedBookingIndexIntegrationTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final ApprovedBookingIndex approvedBookingIndex;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(new UserDto(null, "Owner", "index-owner@example.com"));
+        booker = userService.createUser(new UserDto(null, "Booker", "index-booker@example.com"));
+        item = itemService.addItem(owner.id(), new ItemDto(null, "Палатка", "Двухместная", true, null));
+        BookingDto booking = bookingService.createBooking(booker.id(), new BookingDto(
+                null, FROM.plusDays(2), FROM.plusDays(4), item.id(), null, null, null));
+        bookingService.approveBooking(owner.id(), booking.id(), true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (UserDto user : List.of(booker, owner)) {
+            if (userRepository.existsById(user.id())) {
+                userService.deleteUser(user.id());
+            }
+        }
+    }
+
+    @Test
+    void deleteUser_booker_shouldFreeItemInCalendar() {
+        // Given
+        assertEquals(1, itemService.getAvailability(item.id(), FROM, FROM.plusDays(10)).busy().size());
+
+        // When
+        userService.deleteUser(booker.id());
+
+        // Then
+        ItemAvailabilityDto availability = itemService.getAvailability(item.id(), FROM, FROM.plusDays(10));
+        assertTrue(availability.busy().isEmpty());
+        assertEquals(List.of(new ItemAvailabilityDto.PeriodDto(FROM, FROM.plusDays(10))), availability.free());
+    }
+
+    @Test
+    void deleteUser_owner_shouldDropBookingsOfOwnedItems() {
+        // When
+        userService.deleteUser(owner.id());
+
+        // Then - вещь удалена вместе с владельцем, её периодов в индексе не остаётся
+        assertTrue(approvedBookingIndex.busy(item.id(), FROM, FROM.plusDays(10)).isEmpty());
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение списка бронирований владельца через проекцию BookingView
+ * и через сущности Booking с ленивой загрузкой вещи и арендатора.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingListBenchmarkIntegrationTest {
+
+    private static final int BOOKINGS = 30;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final EntityManager entityManager;
+
+    private UserDto owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        // Разные вещи и арендаторы: иначе связи загружались бы из контекста персистентности
+        for (int i = 0; i < BOOKINGS; i++) {
+            ItemDto item = itemService.addItem(owner.id(), new ItemDto(null, "Вещь " + i, "Описание", true, null));
+            UserDto booker = userService.createUser(new UserDto(null, "Booker " + i, "booker" + i + "@example.com"));
+            bookingService.createBooking(booker.id(), new BookingDto(
+                    null, start.plusHours(i), start.plusHours(i + 1), item.id(), null, null, null));
+        }
+        entityManager.flush();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void ownerBookings_projection_shouldUseOneStatementAndAllocateLessThanEntities() {
+        // When
+        long projectionStatements = countStatements(this::viaProjection);
+        long entityStatements = countStatements(this::viaEntities);
+        long projectionBytes = allocatedBytes(this::viaProjection);
+        long entityBytes = allocatedBytes(this::viaEntities);
+        log.info("Owner bookings list of {} rows: projection {} statements, {} bytes; entities {} statements, {} bytes",
+                BOOKINGS, projectionStatements, projectionBytes / MEASURED_ITERATIONS,
+                entityStatements, entityBytes / MEASURED_ITERATIONS);
+
+        // Then - проекция обходится одним запросом, сущности догружают вещь и арендатора для каждой строки
+        assertEquals(1, projectionStatements);
+        assertEquals(1 + 2 * BOOKINGS, entityStatements);
+        assertTrue(projectionBytes < entityBytes,
+                "projection allocated " + projectionBytes + " bytes, entities " + entityBytes);
+    }
+
+    private List<BookingDto> viaProjection() {
+        return bookingRepository.findByItemOwnerId(owner.id(), BookingCursor.FIRST.start(), BookingCursor.FIRST.id(),
+                        PageRequest.of(0, BOOKINGS)).stream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
+    }
+
+    // Прежний способ: сущности без fetch join и маппинг с обращением к ленивым связям
+    private List<BookingDto> viaEntities() {
+        return entityManager.createQuery("select b from Booking b " +
+                        "where b.item.owner.id = ?1 " +
+                        "order by b.start desc, b.id desc", Booking.class)
+                .setParameter(1, owner.id())
+                .setMaxResults(BOOKINGS)
+                .getResultStream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
+    }
+
+    private long countStatements(Supplier<List<BookingDto>> list) {
+        entityManager.clear();
+        statistics.clear();
+        assertEquals(BOOKINGS, list.get().size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long allocatedBytes(Supplier<List<BookingDto>> list) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            entityManager.clear();
+            list.get();
+        }
+        long total = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            entityManager.clear();
+            long before = threads.getCurrentThreadAllocatedBytes();
+            list.get();
+            total += threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,278 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStateCountsDto;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingServiceIntegrationTest {
+
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        booker = userService.createUser(new UserDto(null, "Booker", "booker@example.com"));
+        item = itemService.addItem(owner.id(), new ItemDto(null, "Дрель", "Мощная дрель", true, null));
+    }
+
+    @Test
+    void getUserBookings_shouldReturnRequestedPageSortedByStartDesc() {
+        // Given
+        List<BookingDto> created = createBookings(5);
+
+        // When
+        List<BookingDto> firstPage = bookingService.getUserBookings(booker.id(), BookingState.ALL, 0, 2, null);
+        List<BookingDto> secondPage = bookingService.getUserBookings(booker.id(), BookingState.ALL, 2, 2, null);
+
+        // Then - новые бронирования сначала
+        assertEquals(List.of(created.get(4).id(), created.get(3).id()), ids(firstPage));
+        assertEquals(List.of(created.get(2).id(), created.get(1).id()), ids(secondPage));
+    }
+
+    @Test
+    void getOwnerBookings_fromNotMultipleOfSize_shouldStartAtFromRow() {
+        // Given
+        List<BookingDto> created = createBookings(5);
+
+        // When
+        List<BookingDto> page = bookingService.getOwnerBookings(owner.id(), BookingState.ALL, 1, 3, null);
+
+        // Then - строки 1-3, а не первая страница 0-2
+        assertEquals(List.of(created.get(3).id(), created.get(2).id(), created.get(1).id()), ids(page));
+    }
+
+    @Test
+    void getUserBookings_withZeroSize_shouldThrowBadRequestException() {
+        // When & Then
+        assertThrows(BadRequestException.class, () ->
+                bookingService.getUserBookings(booker.id(), BookingState.ALL, 0, 0, null));
+    }
+
+    @Test
+    void getOwnerBookings_afterCursor_shouldContinueFromGivenBooking() {
+        // Given
+        List<BookingDto> created = createBookings(5);
+
+        // When
+        List<BookingDto> firstPage = bookingService.getOwnerBookings(owner.id(), BookingState.ALL, 0, 2, null);
+        Long lastSeen = firstPage.get(firstPage.size() - 1).id();
+        List<BookingDto> nextPage = bookingService.getOwnerBookings(owner.id(), BookingState.ALL, 0, 10, lastSeen);
+
+        // Then
+        assertEquals(List.of(created.get(2).id(), created.get(1).id(), created.get(0).id()), ids(nextPage));
+    }
+
+    @Test
+    void getUserBookings_withUnknownCursor_shouldThrowNotFoundException() {
+        // When & Then
+        assertThrows(NotFoundException.class, () ->
+                bookingService.getUserBookings(booker.id(), BookingState.ALL, 0, 10, 999L));
+    }
+
+    @Test
+    void getUserBookings_withCursorOfAnotherBooker_shouldThrowNotFoundException() {
+        // Given
+        UserDto stranger = userService.createUser(new UserDto(null, "Stranger", "stranger@example.com"));
+        Long foreign = createBookings(1).get(0).id();
+
+        // When & Then - чужое бронирование неотличимо от несуществующего
+        assertThrows(NotFoundException.class, () ->
+                bookingService.getUserBookings(stranger.id(), BookingState.ALL, 0, 10, foreign));
+    }
+
+    @Test
+    void getOwnerBookings_withCursorOfAnotherOwnersItem_shouldThrowNotFoundException() {
+        // Given - арендатор не владеет вещью, на которую указывает курсор
+        Long foreign = createBookings(1).get(0).id();
+
+        // When & Then
+        assertThrows(NotFoundException.class, () ->
+                bookingService.getOwnerBookings(booker.id(), BookingState.ALL, 0, 10, foreign));
+    }
+
+    @Test
+    void createBooking_overlappingActiveBooking_shouldThrowConflictException() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.createBooking(booker.id(), new BookingDto(
+                null, start, start.plusDays(2), item.id(), null, null, null));
+
+        // When & Then
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(booker.id(), new BookingDto(
+                null, start.plusDays(1), start.plusDays(3), item.id(), null, null, null)));
+    }
+
+    @Test
+    void createBooking_adjacentPeriod_shouldBeAllowed() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.createBooking(booker.id(), new BookingDto(
+                null, start, start.plusDays(1), item.id(), null, null, null));
+
+        // When
+        BookingDto next = bookingService.createBooking(booker.id(), new BookingDto(
+                null, start.plusDays(1), start.plusDays(2), item.id(), null, null, null));
+
+        // Then
+        assertNotNull(next.id());
+    }
+
+    @Test
+    void createBooking_overlappingRejectedBooking_shouldBeAllowed() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto rejected = bookingService.createBooking(booker.id(), new BookingDto(
+                null, start, start.plusDays(2), item.id(), null, null, null));
+        bookingService.approveBooking(owner.id(), rejected.id(), false);
+
+        // When
+        BookingDto created = bookingService.createBooking(booker.id(), new BookingDto(
+                null, start, start.plusDays(2), item.id(), null, null, null));
+
+        // Then
+        assertEquals(Status.WAITING, created.status());
+    }
+
+    @Test
+    void exportOwnerBookings_ndjson_shouldWriteBookingPerLineNewestFirst() throws IOException {
+        // Given
+        List<BookingDto> created = createBookings(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        bookingService.exportOwnerBookings(owner.id(), BookingExportFormat.NDJSON).writeTo(out);
+
+        // Then
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"id\":" + created.get(2).id() + ","), lines.get(0));
+        assertTrue(lines.get(2).contains("\"booker\":{\"id\":" + booker.id() + ",\"name\":\"Booker\"}"), lines.get(2));
+    }
+
+    @Test
+    void exportOwnerBookings_csv_shouldWriteHeaderAndQuoteText() throws IOException {
+        // Given
+        ItemDto saw = itemService.addItem(owner.id(), new ItemDto(null, "Пила, \"цепная\"", "Бензиновая", true, null));
+        LocalDateTime start = LocalDateTime.of(2100, 1, 1, 10, 0);
+        BookingDto booking = bookingService.createBooking(booker.id(), new BookingDto(
+                null, start, start.plusDays(1), saw.id(), null, null, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        bookingService.exportOwnerBookings(owner.id(), BookingExportFormat.CSV).writeTo(out);
+
+        // Then
+        assertEquals(List.of(
+                        "id,start,end,status,itemId,itemName,bookerId,bookerName",
+                        booking.id() + ",2100-01-01T10:00:00,2100-01-02T10:00:00,WAITING," + saw.id()
+                                + ",\"Пила, \"\"цепная\"\"\"," + booker.id() + ",Booker"),
+                out.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+
+    @Test
+    void exportOwnerBookings_unknownOwner_shouldThrowNotFoundBeforeWriting() {
+        // When & Then
+        assertThrows(NotFoundException.class, () ->
+                bookingService.exportOwnerBookings(999L, BookingExportFormat.NDJSON));
+    }
+
+    @Test
+    void getBookingCounts_shouldCountEveryStateForBookerAndOwner() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto past = book(now.minusDays(3), now.minusDays(2));
+        bookingService.approveBooking(owner.id(), past.id(), true);
+        book(now.minusHours(1), now.plusHours(1));
+        book(now.plusDays(1), now.plusDays(2));
+        BookingDto rejected = book(now.plusDays(3), now.plusDays(4));
+        bookingService.approveBooking(owner.id(), rejected.id(), false);
+
+        // When
+        BookingStateCountsDto bookerCounts = bookingService.getUserBookingCounts(booker.id());
+        BookingStateCountsDto ownerCounts = bookingService.getOwnerBookingCounts(owner.id());
+
+        // Then
+        BookingStateCountsDto expected = new BookingStateCountsDto(4, 1, 1, 2, 2, 1);
+        assertEquals(expected, bookerCounts);
+        assertEquals(expected, ownerCounts);
+        assertEquals(new BookingStateCountsDto(0, 0, 0, 0, 0, 0), bookingService.getUserBookingCounts(owner.id()));
+    }
+
+    @Test
+    void getOwnerBookingCounts_shouldBeCachedUntilBookingCreated() {
+        // Given
+        createBookings(2);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String countQuery = BookingRepository.COUNT_BY_STATE + "join b.item i where i.owner.id = ?1";
+        statistics.clear();
+
+        // When
+        BookingStateCountsDto first = bookingService.getOwnerBookingCounts(owner.id());
+        BookingStateCountsDto cached = bookingService.getOwnerBookingCounts(owner.id());
+        book(LocalDateTime.now().plusDays(100), LocalDateTime.now().plusDays(101));
+        BookingStateCountsDto recounted = bookingService.getOwnerBookingCounts(owner.id());
+
+        // Then
+        assertEquals(first, cached);
+        assertEquals(first.waiting() + 1, recounted.waiting());
+        assertEquals(2, statistics.getQueryStatistics(countQuery).getExecutionCount());
+    }
+
+    private BookingDto book(LocalDateTime start, LocalDateTime end) {
+        return bookingService.createBooking(booker.id(), new BookingDto(
+                null, start, end, item.id(), null, null, null));
+    }
+
+    private List<BookingDto> createBookings(int count) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return IntStream.range(0, count)
+                .mapToObj(i -> bookingService.createBooking(booker.id(), new BookingDto(
+                        null, start.plusDays(i * 2L), start.plusDays(i * 2L + 1), item.id(), null, null, null)))
+                .toList();
+    }
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream()
+                .map(BookingDto::id)
+                .toList();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Подтверждения в отдельных транзакциях, поэтому тест без @Transactional и удаляет свои данные сам.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemBookingSummaryConcurrencyIntegrationTest {
+
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(new UserDto(null, "Owner", "summary-owner@example.com"));
+        booker = userService.createUser(new UserDto(null, "Booker", "summary-booker@example.com"));
+        item = itemService.addItem(owner.id(), new ItemDto(null, "Дрель", "Ударная", true, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteUser(booker.id());
+        userService.deleteUser(owner.id());
+    }
+
+    @Test
+    void approveBooking_concurrentFirstApprovals_shouldBothCreateOneSummary() throws Exception {
+        // Given - первое подтверждение создаёт снимок и не фиксируется, пока не стартует второе
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto first = createBooking(start);
+        BookingDto second = createBooking(start.plusDays(2));
+        CountDownLatch firstApplied = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+
+        // When
+        CompletableFuture<Void> firstApproval = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    bookingService.approveBooking(owner.id(), first.id(), true);
+                    firstApplied.countDown();
+                    await(commitFirst);
+                }));
+        assertTrue(firstApplied.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> secondApproval = CompletableFuture.runAsync(() ->
+                bookingService.approveBooking(owner.id(), second.id(), true));
+        // Второе подтверждение успевает дойти до снимка и ждёт блокировку
+        Thread.sleep(300);
+        commitFirst.countDown();
+        firstApproval.get(10, TimeUnit.SECONDS);
+        secondApproval.get(10, TimeUnit.SECONDS);
+
+        // Then
+        ItemBookingSummary summary = summaryRepository.findById(item.id()).orElseThrow();
+        assertEquals(first.id(), summary.getNext().bookingId());
+        assertEquals(Status.APPROVED, bookingService.getBookingById(booker.id(), second.id()).status());
+    }
+
+    private BookingDto createBooking(LocalDateTime start) {
+        return bookingService.createBooking(booker.id(),
+                new BookingDto(null, start, start.plusDays(1), item.id(), null, null, null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
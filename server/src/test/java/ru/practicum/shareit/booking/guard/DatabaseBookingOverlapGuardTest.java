@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.guard;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Разбор ошибок целостности без PostgreSQL: исключения собраны так же, как их оборачивают Hibernate и Spring.
+ */
+class DatabaseBookingOverlapGuardTest {
+
+    @Test
+    void isOverlap_exclusionViolation_shouldBeOverlap() {
+        // Given
+        SQLException sqlException = new SQLException("conflicting key value violates exclusion constraint", "23P01");
+        DataIntegrityViolationException e = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sqlException, "insert",
+                        "ex_bookings_item_period"));
+
+        // When & Then
+        assertTrue(DatabaseBookingOverlapGuard.isOverlap(e));
+    }
+
+    @Test
+    void isOverlap_foreignKeyViolation_shouldNotBeOverlap() {
+        // Given
+        SQLException sqlException = new SQLException("insert or update violates foreign key constraint", "23503");
+        DataIntegrityViolationException e = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sqlException, "insert",
+                        "fk_booking_to_item"));
+
+        // When & Then
+        assertFalse(DatabaseBookingOverlapGuard.isOverlap(e));
+    }
+
+    @Test
+    void isOverlap_notNullViolation_shouldNotBeOverlap() {
+        // Given
+        DataIntegrityViolationException e = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("null value in column \"status\" violates not-null constraint", "23502"));
+
+        // When & Then
+        assertFalse(DatabaseBookingOverlapGuard.isOverlap(e));
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Кэш заполняется и очищается при фиксации транзакций, поэтому тесты работают
+ * без общей откатываемой транзакции и удаляют созданных пользователей сами.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class EntityCacheIntegrationTest {
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    private final List<Long> createdUsers = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        createdUsers.forEach(userService::deleteUser);
+    }
+
+    @Test
+    void existsById_shouldBeServedFromQueryCache() {
+        // Given
+        UserDto user = createUser("Cached", "cached@example.com");
+        userRepository.existsById(user.id());
+        statistics.clear();
+
+        // When
+        boolean exists = userRepository.existsById(user.id());
+
+        // Then
+        assertTrue(exists);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void findById_shouldBeServedFromSecondLevelCache() {
+        // Given
+        UserDto user = createUser("Cached", "cached@example.com");
+        userService.getUserById(user.id());
+        statistics.clear();
+
+        // When
+        UserDto found = userService.getUserById(user.id());
+
+        // Then
+        assertEquals("Cached", found.name());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void deleteUser_shouldNotReportUserExistingFromCache() {
+        // Given
+        UserDto user = userService.createUser(new UserDto(null, "Deleted", "deleted@example.com"));
+        userRepository.existsById(user.id());
+
+        // When
+        userService.deleteUser(user.id());
+
+        // Then
+        assertFalse(userRepository.existsById(user.id()));
+    }
+
+    @Test
+    void updateUser_shouldNotServeStaleUserFromCache() {
+        // Given
+        UserDto user = createUser("Before", "before@example.com");
+        userService.getUserById(user.id());
+
+        // When
+        userService.updateUser(user.id(), new UserDto(null, "After", null));
+
+        // Then
+        assertEquals("After", userService.getUserById(user.id()).name());
+    }
+
+    @Test
+    void cacheMetrics_shouldBeRegisteredForEntityRegions() {
+        // When & Then
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", User.class.getName()).meter());
+        assertNotNull(meterRegistry.find("cache.removals").tag("cache", User.class.getName()).meter());
+    }
+
+    private UserDto createUser(String name, String email) {
+        UserDto user = userService.createUser(new UserDto(null, name, email));
+        createdUsers.add(user.id());
+        return user;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ответы на ошибки целостности: исключения собраны так же, как их оборачивают Hibernate и Spring.
+ */
+class ErrorHandlerTest {
+
+    private final ErrorHandler errorHandler = new ErrorHandler();
+
+    @Test
+    void handleDataIntegrityViolation_duplicateEmail_shouldAnswerConflict() {
+        // Given - имя ограничения в том виде, в каком его сообщает H2
+        DataIntegrityViolationException e = violation("PUBLIC.UQ_USER_EMAIL_INDEX_4", "23505");
+
+        // When
+        ResponseEntity<ErrorResponse> response = errorHandler.handleDataIntegrityViolationException(e);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void handleDataIntegrityViolation_foreignKeyViolation_shouldAnswerInternalServerError() {
+        // Given
+        DataIntegrityViolationException e = violation("fk_booking_to_item", "23503");
+
+        // When
+        ResponseEntity<ErrorResponse> response = errorHandler.handleDataIntegrityViolationException(e);
+
+        // Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    @Test
+    void handleDataIntegrityViolation_notNullViolation_shouldAnswerInternalServerError() {
+        // Given
+        DataIntegrityViolationException e = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("null value in column \"status\" violates not-null constraint", "23502"));
+
+        // When
+        ResponseEntity<ErrorResponse> response = errorHandler.handleDataIntegrityViolationException(e);
+
+        // Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    private static DataIntegrityViolationException violation(String constraint, String sqlState) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement",
+                        new SQLException("constraint violation", sqlState), "insert", constraint));
+    }
+}
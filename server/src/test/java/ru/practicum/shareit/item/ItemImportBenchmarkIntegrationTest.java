@@ -0,0 +1,98 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение добавления вещей по одной (транзакция на вещь, как при POST /items)
+ * и массового импорта пачкой с JDBC-пакетами. Транзакции фиксируются,
+ * поэтому владельцы с их вещами удаляются после теста.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemImportBenchmarkIntegrationTest {
+
+    private static final int ITEMS = 2000;
+
+    private final ItemService itemService;
+    private final UserService userService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private UserDto singleOwner;
+    private UserDto bulkOwner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        singleOwner = userService.createUser(new UserDto(null, "Single", "single@example.com"));
+        bulkOwner = userService.createUser(new UserDto(null, "Bulk", "bulk@example.com"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteUser(singleOwner.id());
+        userService.deleteUser(bulkOwner.id());
+    }
+
+    @Test
+    void importItems_shouldBatchInsertsAndOutperformSingleInserts() {
+        // Given
+        List<ItemImportRowDto> rows = IntStream.rangeClosed(1, ITEMS)
+                .mapToObj(row -> new ItemImportRowDto(row, item(row)))
+                .toList();
+
+        // When
+        statistics.clear();
+        long started = System.nanoTime();
+        for (ItemImportRowDto row : rows) {
+            itemService.addItem(singleOwner.id(), row.item());
+        }
+        double singleSeconds = (System.nanoTime() - started) / 1e9;
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        started = System.nanoTime();
+        List<ItemImportResultDto> results = itemService.importItems(bulkOwner.id(), rows);
+        double bulkSeconds = (System.nanoTime() - started) / 1e9;
+        long bulkStatements = statistics.getPrepareStatementCount();
+        long inserted = statistics.getEntityInsertCount();
+
+        log.info("Import of {} items: single {} inserts/s, {} statements; bulk {} inserts/s, {} statements",
+                ITEMS, Math.round(ITEMS / singleSeconds), singleStatements,
+                Math.round(ITEMS / bulkSeconds), bulkStatements);
+
+        // Then - вставки идут пакетами по 50, id выделяются блоками последовательности
+        assertEquals(ITEMS, inserted);
+        assertTrue(results.stream().allMatch(result -> result.id() != null && result.error() == null));
+        assertTrue(bulkStatements <= 2 * ITEMS / 50 + 2, "bulk import used " + bulkStatements + " statements");
+        assertTrue(bulkStatements * 10 < singleStatements,
+                "bulk " + bulkStatements + " statements, single " + singleStatements);
+    }
+
+    private static ItemDto item(int row) {
+        return new ItemDto(null, "Вещь " + row, "Описание вещи " + row, true, null);
+    }
+}
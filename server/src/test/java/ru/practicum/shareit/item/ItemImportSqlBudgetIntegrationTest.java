@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Пачка импорта размером с пачку gateway (shareit.import.chunk-size) укладывается в бюджет
+ * SQL-выражений POST /items/bulk. Транзакция импорта фиксируется, поэтому владелец
+ * с его вещами удаляется после теста.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemImportSqlBudgetIntegrationTest {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final UserService userService;
+
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteUser(owner.id());
+    }
+
+    @Test
+    void importItems_fullChunk_shouldStayWithinBudget() throws Exception {
+        // Given - последняя строка ссылается на несуществующий запрос, чтобы импорт проверил запросы
+        List<ItemImportRowDto> rows = IntStream.rangeClosed(1, CHUNK_SIZE)
+                .mapToObj(row -> new ItemImportRowDto(row, new ItemDto(null, "Вещь " + row,
+                        "Описание вещи " + row, true, row == CHUNK_SIZE ? Long.MAX_VALUE : null)))
+                .toList();
+
+        // When & Then - в тестах превышение бюджета завершает запрос ошибкой
+        mockMvc.perform(post("/items/bulk")
+                        .header("X-Sharer-User-Id", owner.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(rows)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(CHUNK_SIZE))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[" + (CHUNK_SIZE - 1) + "].error").isString());
+        assertEquals(0, meterRegistry.counter("shareit.sql.budget.exceeded",
+                "handler", "ItemController.importItems").count());
+    }
+}
@@ -0,0 +1,294 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryTracker;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemServiceIntegrationTest {
+
+    private final ItemService itemService;
+    private final UserService userService;
+    private final BookingService bookingService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final ItemBookingSummaryTracker itemBookingSummaryTracker;
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    private UserDto booker;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        booker = userService.createUser(new UserDto(null, "Booker", "booker@example.com"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getItemsByOwner_shouldReturnLastAndNextBookingsAndComments() {
+        // Given
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        ItemDto item = createItemWithBookings(owner, "Дрель");
+
+        // When
+        List<ItemWithBookingsDto> items = itemService.getItemsByOwner(owner.id());
+
+        // Then
+        assertEquals(1, items.size());
+        ItemWithBookingsDto found = items.get(0);
+        assertEquals(item.id(), found.id());
+        assertNotNull(found.lastBooking());
+        assertNotNull(found.nextBooking());
+        assertEquals(booker.id(), found.lastBooking().bookerId());
+        assertTrue(found.lastBooking().start().isBefore(found.nextBooking().start()));
+        assertEquals(1, found.comments().size());
+        assertEquals("Booker", found.comments().get(0).authorName());
+    }
+
+    @Test
+    void getItemsByOwner_shouldExecuteConstantNumberOfStatements() {
+        // Given
+        UserDto smallOwner = userService.createUser(new UserDto(null, "Small", "small@example.com"));
+        UserDto largeOwner = userService.createUser(new UserDto(null, "Large", "large@example.com"));
+        for (int i = 0; i < 2; i++) {
+            createItemWithBookings(smallOwner, "Small item " + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            createItemWithBookings(largeOwner, "Large item " + i);
+        }
+        // Вставки с id из последовательности откладываются до flush - не засчитываем их в замер
+        entityManager.flush();
+
+        // When
+        long smallOwnerStatements = countStatements(() -> itemService.getItemsByOwner(smallOwner.id()));
+        long largeOwnerStatements = countStatements(() -> itemService.getItemsByOwner(largeOwner.id()));
+
+        // Then - количество запросов не зависит от количества вещей
+        assertEquals(smallOwnerStatements, largeOwnerStatements);
+    }
+
+    @Test
+    void getItemById_shouldReadBookingsFromSummaryWithoutLoadingBookings() {
+        // Given
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        ItemDto item = createItemWithBookings(owner, "Дрель");
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        ItemWithBookingsDto found = itemService.getItemById(item.id(), owner.id());
+
+        // Then
+        assertNotNull(found.lastBooking());
+        assertNotNull(found.nextBooking());
+        assertEquals(booker.id(), found.nextBooking().bookerId());
+        assertEquals(0, statistics.getEntityStatistics(Booking.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void getItemById_shouldRecomputeBookingsWhenNextBookingStarted() {
+        // Given
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        ItemDto item = createItemWithBookings(owner, "Дрель");
+        Long nextBookingId = startNextBooking(item.id());
+
+        // When
+        ItemWithBookingsDto found = itemService.getItemById(item.id(), owner.id());
+
+        // Then - снимок ещё не пересчитан обходом, но ответ уже учитывает начавшееся бронирование
+        assertEquals(nextBookingId, found.lastBooking().id());
+        assertNull(found.nextBooking());
+        assertEquals(nextBookingId, itemService.getItemsByOwner(owner.id()).get(0).lastBooking().id());
+    }
+
+    @Test
+    void sweep_shouldMoveStartedNextBookingToLast() {
+        // Given
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        ItemDto item = createItemWithBookings(owner, "Дрель");
+        Long nextBookingId = startNextBooking(item.id());
+
+        // When
+        itemBookingSummaryTracker.sweep();
+
+        // Then
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(item.id()).orElseThrow();
+        assertEquals(nextBookingId, summary.getLast().bookingId());
+        assertNull(summary.getNext());
+        assertNull(summary.getRefreshAt());
+    }
+
+    @Test
+    void searchItems_shouldRankNameMatchesFirstAndSkipUnavailable() {
+        // Given
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        ItemDto byDescription = itemService.addItem(owner.id(),
+                new ItemDto(null, "Перфоратор", "Умеет работать как дрель", true, null));
+        ItemDto byName = itemService.addItem(owner.id(),
+                new ItemDto(null, "Аккумуляторная ДРЕЛЬ", "Лёгкая", true, null));
+        itemService.addItem(owner.id(), new ItemDto(null, "Дрель сломанная", "Не работает", false, null));
+
+        // When
+        List<ItemDto> found = itemService.searchItems("дРеЛь", 0, 10);
+
+        // Then
+        assertEquals(List.of(byName.id(), byDescription.id()), found.stream().map(ItemDto::id).toList());
+    }
+
+    @Test
+    void searchItems_shouldReturnRequestedPage() {
+        // Given
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        for (int i = 0; i < 5; i++) {
+            itemService.addItem(owner.id(), new ItemDto(null, "Отвёртка " + i, "Крестовая", true, null));
+        }
+
+        // When
+        List<ItemDto> firstPage = itemService.searchItems("отвёртка", 0, 3);
+        List<ItemDto> secondPage = itemService.searchItems("отвёртка", 3, 3);
+
+        // Then
+        assertEquals(3, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertTrue(firstPage.get(2).id() < secondPage.get(0).id());
+    }
+
+    @Test
+    void searchItems_fromNotMultipleOfSize_shouldStartAtFromRow() {
+        // Given
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        for (int i = 0; i < 5; i++) {
+            itemService.addItem(owner.id(), new ItemDto(null, "Отвёртка " + i, "Крестовая", true, null));
+        }
+        List<ItemDto> all = itemService.searchItems("отвёртка", 0, 10);
+
+        // When
+        List<ItemDto> page = itemService.searchItems("отвёртка", 1, 3);
+
+        // Then
+        assertEquals(all.subList(1, 4), page);
+    }
+
+    @Test
+    void searchItems_withZeroSize_shouldThrowBadRequestException() {
+        // When & Then
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("отвёртка", 0, 0));
+    }
+
+    @Test
+    void getAvailability_shouldReturnApprovedBookingsAsBusyAndGapsAsFree() {
+        // Given
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        ItemDto item = itemService.addItem(owner.id(), new ItemDto(null, "Палатка", "Двухместная", true, null));
+        LocalDateTime from = LocalDateTime.of(2100, 1, 1, 0, 0);
+        BookingDto approved = bookingService.createBooking(booker.id(), new BookingDto(
+                null, from.plusDays(2), from.plusDays(4), item.id(), null, null, null));
+        bookingService.approveBooking(owner.id(), approved.id(), true);
+        bookingService.createBooking(booker.id(), new BookingDto(
+                null, from.plusDays(6), from.plusDays(7), item.id(), null, null, null));
+
+        // When
+        ItemAvailabilityDto availability = itemService.getAvailability(item.id(), from, from.plusDays(10));
+
+        // Then - ожидающее подтверждения бронирование период не занимает
+        assertEquals(List.of(new ItemAvailabilityDto.PeriodDto(from.plusDays(2), from.plusDays(4))),
+                availability.busy());
+        assertEquals(List.of(
+                        new ItemAvailabilityDto.PeriodDto(from, from.plusDays(2)),
+                        new ItemAvailabilityDto.PeriodDto(from.plusDays(4), from.plusDays(10))),
+                availability.free());
+    }
+
+    @Test
+    void importItems_shouldReturnResultPerRowAndSkipUnknownRequests() {
+        // Given
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@example.com"));
+        List<ItemImportRowDto> rows = List.of(
+                new ItemImportRowDto(1, new ItemDto(null, "Шуруповёрт", "Аккумуляторный", true, null)),
+                new ItemImportRowDto(3, new ItemDto(null, "Лобзик", "Электрический", true, Long.MAX_VALUE)),
+                new ItemImportRowDto(4, new ItemDto(null, "Стремянка", "Алюминиевая", false, null)));
+
+        // When
+        List<ItemImportResultDto> results = itemService.importItems(owner.id(), rows);
+
+        // Then
+        assertEquals(List.of(1, 3, 4), results.stream().map(ItemImportResultDto::row).toList());
+        assertNotNull(results.get(0).id());
+        assertEquals("Request with id=" + Long.MAX_VALUE + " not found", results.get(1).error());
+        assertNotNull(results.get(2).id());
+        assertEquals(List.of("Шуруповёрт", "Стремянка"), itemService.getItemsByOwner(owner.id()).stream()
+                .map(ItemWithBookingsDto::name)
+                .toList());
+        assertEquals(results.get(0).id(), itemService.searchItems("шуруп", 0, 10).get(0).id());
+    }
+
+    private ItemDto createItemWithBookings(UserDto owner, String name) {
+        ItemDto item = itemService.addItem(owner.id(), new ItemDto(null, name, "Описание", true, null));
+        LocalDateTime now = LocalDateTime.now();
+
+        BookingDto past = bookingService.createBooking(booker.id(), new BookingDto(
+                null, now.minusDays(3), now.minusDays(2), item.id(), null, null, null));
+        bookingService.approveBooking(owner.id(), past.id(), true);
+
+        BookingDto future = bookingService.createBooking(booker.id(), new BookingDto(
+                null, now.plusDays(2), now.plusDays(3), item.id(), null, null, null));
+        bookingService.approveBooking(owner.id(), future.id(), true);
+
+        itemService.addComment(booker.id(), item.id(), new CommentDto(null, "Отличная вещь", null, null));
+        return item;
+    }
+
+    // Сдвигает ближайшее бронирование вещи в прошлое, как если бы наступило его начало
+    private Long startNextBooking(Long itemId) {
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemId).orElseThrow();
+        Long nextBookingId = summary.getNext().bookingId();
+        LocalDateTime started = LocalDateTime.now().minusHours(1);
+        entityManager.createQuery("update Booking b set b.start = ?1 where b.id = ?2")
+                .setParameter(1, started)
+                .setParameter(2, nextBookingId)
+                .executeUpdate();
+        summary.setRefreshAt(started);
+        entityManager.flush();
+        entityManager.clear();
+        return nextBookingId;
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedDataSourceTest {
+
+    private BoundedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:bounded");
+        dataSource = new BoundedDataSource(h2, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_shouldHoldPermitUntilConnectionClosed() throws Exception {
+        // Given
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, dataSource.availablePermits());
+
+        // When
+        connection.close();
+        connection.close();
+
+        // Then - повторное закрытие не возвращает разрешение дважды
+        assertEquals(2, dataSource.availablePermits());
+        assertTrue(connection.isClosed());
+    }
+
+    @Test
+    void getConnection_shouldFailAfterTimeoutWhenAllPermitsTaken() throws Exception {
+        // Given
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            // When & Then
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertEquals(0, dataSource.availablePermits());
+        }
+        assertEquals(2, dataSource.availablePermits());
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.jdbc;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки числа SQL-выражений для интеграционных тестов. Считаются выражения, прошедшие через
+ * источник данных, поэтому отложенные вставки теста нужно сбросить (entityManager.flush()) до проверки.
+ * Бюджеты методов контроллеров берутся из SqlStatementBudget:
+ * assertWithinBudget(budget, "ItemRequestController.getAllRequests", () -> service.getAllRequests(userId)).
+ */
+@UtilityClass
+public class SqlStatementAssertions {
+
+    public static int countStatements(Runnable action) {
+        SqlStatementCounter counter = SqlStatementCounter.start();
+        try {
+            action.run();
+        } finally {
+            SqlStatementCounter.stop();
+        }
+        return counter.statements();
+    }
+
+    public static <T> T assertStatementsAtMost(int max, Supplier<T> action) {
+        SqlStatementCounter counter = SqlStatementCounter.start();
+        T result;
+        try {
+            result = action.get();
+        } finally {
+            SqlStatementCounter.stop();
+        }
+        assertTrue(counter.statements() <= max,
+                "Expected at most " + max + " SQL statements, but was " + counter.statements());
+        return result;
+    }
+
+    public static <T> T assertWithinBudget(SqlStatementBudget budget, String handler, Supplier<T> action) {
+        return assertStatementsAtMost(budget.budgetFor(handler), action);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Бюджет 0: любое выражение запроса к /requests/all сверх бюджета
+@SpringBootTest(properties = "shareit.sql-budget.handlers[ItemRequestController.getAllRequests]=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class SqlStatementMetricsIntegrationTest {
+
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+    private final UserService userService;
+    private final EntityManager entityManager;
+
+    @Test
+    void request_shouldRecordStatementsPerHandlerAndServiceTimer() throws Exception {
+        // Given
+        userService.createUser(new UserDto(null, "User", "user@example.com"));
+        long before = statementsPerRequest().count();
+
+        // When
+        mockMvc.perform(get("/users")).andExpect(status().isOk());
+
+        // Then
+        DistributionSummary statements = statementsPerRequest();
+        assertEquals(before + 1, statements.count());
+        assertTrue(statements.max() >= 1);
+        assertNotNull(meterRegistry.find("shareit.sql.statements").tag("type", "select").timer());
+        Timer service = meterRegistry.find("shareit.service").tag("method", "getAllUsers").timer();
+        assertNotNull(service);
+        assertTrue(service.count() >= 1);
+    }
+
+    @Test
+    void request_overBudget_shouldFailAndCountExceeded() throws Exception {
+        // Given
+        UserDto user = userService.createUser(new UserDto(null, "User", "user@example.com"));
+        entityManager.flush();
+
+        // When & Then - в тестах превышение бюджета завершает запрос ошибкой
+        mockMvc.perform(get("/requests/all").header("X-Sharer-User-Id", user.id()))
+                .andExpect(status().isInternalServerError());
+        assertEquals(1, meterRegistry.counter("shareit.sql.budget.exceeded",
+                "handler", "ItemRequestController.getAllRequests").count());
+    }
+
+    private DistributionSummary statementsPerRequest() {
+        return meterRegistry.summary("shareit.sql.statements.per.request", "handler", "UserController.getAllUsers");
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,9 +8,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.ErrorCode;
+import ru.practicum.shareit.exception.ErrorResponse;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.jdbc.SqlStatementBudget;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -18,6 +22,7 @@ import ru.practicum.shareit.user.service.UserService;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareit.jdbc.SqlStatementAssertions.assertWithinBudget;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -28,6 +33,8 @@ class ItemRequestServiceIntegrationTest {
     private final ItemRequestService itemRequestService;
     private final UserService userService;
     private final ItemService itemService;
+    private final SqlStatementBudget sqlStatementBudget;
+    private final EntityManager entityManager;
 
     private UserDto requestor;
     private UserDto owner;
@@ -73,6 +80,19 @@ class ItemRequestServiceIntegrationTest {
         });
     }
 
+    @Test
+    void getRequestById_withNonExistentRequest_shouldThrowStacklessExceptionWithCode() {
+        // When
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> itemRequestService.getRequestById(owner.id(), 999L));
+
+        // Then - ожидаемая ошибка не заполняет стек, сообщение собирается из кода
+        assertEquals(ErrorCode.REQUEST_NOT_FOUND, e.getErrorCode());
+        assertEquals("Request with id=999 not found", e.getMessage());
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(new ErrorResponse("Not found", "Request with id=999 not found"), e.toErrorResponse());
+    }
+
     @Test
     void getUserRequests_shouldReturnRequestsWithItems() {
         // Given
@@ -141,6 +161,26 @@ class ItemRequestServiceIntegrationTest {
         assertEquals("Нужна дрель", requests.get(0).getDescription());
     }
 
+    @Test
+    void getAllRequests_shouldStayWithinStatementBudgetForManyRequestsWithItems() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            ItemRequestDto requestDto = new ItemRequestDto();
+            requestDto.setDescription("Нужна дрель " + i);
+            ItemRequestDto request = itemRequestService.createRequest(requestor.id(), requestDto);
+            itemService.addItem(owner.id(), new ItemDto(null, "Дрель " + i, "Ударная", true, request.getId()));
+        }
+        entityManager.flush();
+
+        // When - число выражений не растёт с числом запросов
+        List<ItemRequestDto> requests = assertWithinBudget(sqlStatementBudget,
+                "ItemRequestController.getAllRequests", () -> itemRequestService.getAllRequests(owner.id()));
+
+        // Then
+        assertEquals(10, requests.size());
+        assertTrue(requests.stream().allMatch(request -> request.getItems().size() == 1));
+    }
+
     @Test
     void getAllRequests_shouldNotReturnOwnRequests() {
         // Given